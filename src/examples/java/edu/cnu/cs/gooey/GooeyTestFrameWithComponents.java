@@ -26,11 +26,15 @@ package edu.cnu.cs.gooey; /**
 
 import org.junit.Test;
 
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleRole;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -108,6 +112,78 @@ public class GooeyTestFrameWithComponents {
                 });
     }
 
+    @Test(timeout = 20000)
+    public void testJFramesCapturedConcurrently() throws Throwable {
+        final int rounds = 10;
+        final CyclicBarrier start = new CyclicBarrier(2);
+        final Throwable[] failure = new Throwable[2];
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int round = 0; round < rounds; round++) {
+                            final String title = "Frame " + id + "." + round;
+                            start.await();
+                            Gooey.capture(
+                                    new GooeyFrame() {
+                                        @Override
+                                        public void invoke() {
+                                            JFrame frame = new JFrame(title);
+                                            frame.setSize(100, 100);
+                                            frame.setVisible(true);
+                                        }
+
+                                        @Override
+                                        public void handle(JFrame frame) {
+                                            assertEquals("Incorrect result", title, frame.getTitle());
+                                            frame.dispose();
+                                        }
+                                    });
+                        }
+                    } catch (Throwable e) {
+                        failure[id] = e;
+                        start.reset();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Throwable e : failure) {
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+
+    @Test
+    public void testJFrameDisplayedQueriedLazily() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        MainClassJFrameNotEmptyDisplayed.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeyQuery<JTextField> textFields = Gooey.find(frame, JTextField.class);
+                        assertEquals("Incorrect result", 3, textFields.count());
+                        assertEquals("Incorrect result", 2, textFields.limit(2).count());
+                        assertEquals("Incorrect result", "name.middle", textFields.skip(1).first().getName());
+                        assertEquals("Incorrect result", Gooey.getComponents(frame, JTextField.class),
+                                     textFields.toList());
+
+                        frame.dispose();
+                    }
+                });
+    }
+
     @Test
     public void testBMI() {
         Gooey.capture(
@@ -158,6 +234,411 @@ public class GooeyTestFrameWithComponents {
                 });
     }
 
+    @Test
+    public void testBMIIndexed() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeyIndex components = Gooey.index(frame);
+
+                        JTextField weight = Gooey.getComponent(frame, JTextField.class, "weight");
+                        JTextField height = Gooey.getComponent(frame, JTextField.class, "height");
+                        JLabel index = Gooey.getComponent(frame, JLabel.class, "index");
+                        JButton go = Gooey.getButton(frame, "Go");
+                        Gooey.getLabel(frame, "Weight (lb)");
+                        Gooey.getLabel(frame, "Height (ft)");
+
+                        assertEquals("Incorrect result", 2, Gooey.getComponents(frame, JTextField.class).size());
+                        assertEquals("Incorrect result", 4, Gooey.getComponents(frame, JLabel.class).size());
+
+                        weight.setText("120");
+                        height.setText("5.411");
+                        go.doClick();
+                        assertEquals("Incorrect result", "20.0", index.getText());
+
+                        components.dispose();
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMIHinted() {
+        final boolean enabled = GooeyHints.isEnabled();
+        GooeyHints.setEnabled(true);
+        GooeyHints.clear();
+        try {
+            Gooey.capture(
+                    new GooeyFrame() {
+                        @Override
+                        public void invoke() {
+                            BMI.main(null);
+                        }
+
+                        @Override
+                        public void handle(JFrame frame) {
+                            JTextField weight = Gooey.getComponent(frame, JTextField.class, "weight");
+                            JTextField height = Gooey.getComponent(frame, JTextField.class, "height");
+                            for (int i = 0; i < 3; i++) {
+                                assertEquals("Incorrect result", weight,
+                                             Gooey.getComponent(frame, JTextField.class, "weight"));
+                            }
+
+                            weight.setName("height");
+                            height.setName("weight");
+                            assertEquals("Incorrect result", height,
+                                         Gooey.getComponent(frame, JTextField.class, "weight"));
+                            assertEquals("Incorrect result", weight,
+                                         Gooey.getComponent(frame, JTextField.class, "height"));
+
+                            frame.dispose();
+                        }
+                    });
+        } finally {
+            GooeyHints.clear();
+            GooeyHints.setEnabled(enabled);
+        }
+    }
+
+    @Test
+    public void testJFrameIndexedByText() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        JPanel personal = new JPanel();
+                        personal.setBorder(BorderFactory.createTitledBorder("Personal data"));
+                        personal.add(new JTextField("Ann", 10));
+                        JPanel content = new JPanel();
+                        content.add(personal);
+                        content.add(new JLabel("<html><b>Total</b> &amp; tax</html>"));
+                        content.add(new JButton("Submit"));
+                        JFrame frame = new JFrame("Indexed by text");
+                        frame.setContentPane(content);
+                        frame.pack();
+                        frame.setVisible(true);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeyIndex components = Gooey.index(frame);
+
+                        JTextField name = components.getComponentByText(JTextField.class, "Ann");
+                        assertTrue("Incorrect result", name != null);
+                        name.setText("Bob");
+                        assertEquals("Incorrect result", null, components.getComponentByText(JTextField.class, "Ann"));
+                        assertEquals("Incorrect result", name, components.getComponentByText(JTextField.class, "Bob"));
+
+                        JPanel personal = components.getComponentByText(JPanel.class, "Personal data");
+                        assertEquals("Incorrect result", personal, name.getParent());
+
+                        JButton submit = components.getComponentByTextIgnoreCase(JButton.class, "SUBMIT");
+                        assertEquals("Incorrect result", Gooey.getButton(frame, "Submit"), submit);
+
+                        JLabel total = components.getComponentByPlainText(JLabel.class, "Total & tax");
+                        assertEquals("Incorrect result", "<html><b>Total</b> &amp; tax</html>", total.getText());
+
+                        components.dispose();
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMISelected() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        JTextField weight = Gooey.select(frame, "JPanel > JTextField[name=weight]");
+                        JButton go = Gooey.select(frame, "JButton[text=Go]");
+                        JLabel index = Gooey.select(frame, "JPanel > JLabel[name=index]");
+
+                        List<JLabel> labels = Gooey.selectAll(frame, "JLabel[text$=\")\"]");
+                        assertEquals("Incorrect result", 2, labels.size());
+                        assertTrue("Incorrect result", labels.contains(Gooey.getLabel(frame, "Weight (lb)")));
+
+                        weight.setText("120");
+                        Gooey.<JTextField>select(frame, "JTextField[name=height]").setText("5.411");
+                        go.doClick();
+                        assertEquals("Incorrect result", "20.0", index.getText());
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMIMatchedByText() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        JLabel weight = Gooey.getLabel(frame, GooeyText.prefix("Weight"));
+                        assertEquals("Incorrect result", weight,
+                                     Gooey.getLabel(frame, GooeyText.normalized("weight (LB)")));
+                        assertEquals("Incorrect result", weight,
+                                     Gooey.getLabel(frame, GooeyText.fuzzy("Wieght (lb)", 2)));
+                        Gooey.getLabel(frame, GooeyText.regex("Height \\(\\w+\\)"));
+
+                        JButton go = Gooey.getButton(frame, GooeyText.regex("G."));
+                        assertEquals("Incorrect result", Gooey.getButton(frame, "Go"), go);
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMIMatchedByCombinators() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeyMatcher fields = GooeyMatcher.byType(JTextField.class);
+                        List<JTextField> all = Gooey.getComponents(frame, fields);
+                        assertEquals("Incorrect result", all,
+                                     Gooey.getComponents(frame, fields.and(GooeyMatcher.byProperty("editable", true))));
+                        assertEquals("Incorrect result", all,
+                                     Gooey.getComponents(frame, GooeyMatcher.anyOf(GooeyMatcher.byName("weight"),
+                                                                                   GooeyMatcher.byName("height"))));
+
+                        List<JTextField> height = Gooey.getComponents(frame,
+                                                                      fields.and(GooeyMatcher.not(
+                                                                              GooeyMatcher.byName("weight"))));
+                        assertEquals("Incorrect result", 1, height.size());
+                        assertEquals("Incorrect result", "height", height.get(0).getName());
+
+                        GooeyMatcher none = GooeyMatcher.byType(JButton.class).and(GooeyMatcher.byType(JLabel.class));
+                        assertEquals("Incorrect result", GooeyMatcher.NONE, none);
+                        assertTrue("Incorrect result", Gooey.getComponents(frame, none).isEmpty());
+                        assertTrue("Incorrect result",
+                                   Gooey.getComponents(frame, GooeyMatcher.byProperty("missing", 1)).isEmpty());
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMILocatedByLabels() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeySpatialIndex layout = Gooey.spatialIndex(frame);
+                        JTextField weight = layout.getComponentRightOf("Weight (lb)", JTextField.class);
+                        JTextField height = layout.getComponentRightOf("Height (ft)", JTextField.class);
+                        JLabel index = layout.getComponentRightOf("Index:", JLabel.class);
+                        assertEquals("Incorrect result", Gooey.getComponent(frame, JTextField.class, "weight"), weight);
+
+                        JButton go = Gooey.getButton(frame, "Go");
+                        Rectangle bounds = layout.getBounds(go);
+                        assertEquals("Incorrect result", go, layout.getComponentAt(bounds.x + 1, bounds.y + 1));
+
+                        weight.setText("120");
+                        height.setText("5.411");
+                        go.doClick();
+                        assertEquals("Incorrect result", "20.0", index.getText());
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMIAccessible() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        JButton go = Gooey.getAccessibleComponent(frame, AccessibleRole.PUSH_BUTTON, "Go",
+                                                                  JButton.class);
+                        assertEquals("Incorrect result", Gooey.getButton(frame, "Go"), go);
+                        assertEquals("Incorrect result", go, Gooey.getAccessibleComponent(frame, null, "Go",
+                                                                                           JButton.class));
+                        Accessible weight = Gooey.getAccessible(frame, AccessibleRole.LABEL, "Weight (lb)");
+                        assertEquals("Incorrect result", Gooey.getLabel(frame, "Weight (lb)"), weight);
+
+                        go.setText("Compute");
+                        assertEquals("Incorrect result", go,
+                                     Gooey.getAccessible(frame, AccessibleRole.PUSH_BUTTON, "Compute"));
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMIResolved() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeyLookup<JTextField> weight = GooeyLookup.byName(JTextField.class, "weight");
+                        GooeyLookup<JTextField> height = GooeyLookup.byName(JTextField.class, "height");
+                        GooeyLookup<JButton> go = GooeyLookup.byText(JButton.class, "Go");
+                        GooeyLookup<JLabel> index = GooeyLookup.byName(JLabel.class, "index");
+
+                        Map<GooeyLookup<?>, Component> found = Gooey.resolve(frame, weight, height, go, index);
+                        weight.get(found).setText("120");
+                        height.get(found).setText("5.411");
+                        go.get(found).doClick();
+                        assertEquals("Incorrect result", "20.0", index.get(found).getText());
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMISnapshot() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeySnapshot snapshot = Gooey.snapshot(frame);
+                        JTextField weight = snapshot.getComponent(JTextField.class, "weight");
+                        JTextField height = snapshot.getComponent(JTextField.class, "height");
+                        JLabel index = snapshot.getComponent(JLabel.class, "index");
+                        assertEquals("Incorrect result", 2, snapshot.getComponents(JTextField.class).size());
+                        assertTrue("Incorrect result", snapshot.getComponentByText(JButton.class, "Go").isEnabled());
+
+                        weight.setText("120");
+                        height.setText("5.411");
+                        snapshot.getComponentByText(JButton.class, "Go").doClick();
+                        assertEquals("Incorrect result", "20.0", index.getText());
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMISnapshotNodes() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeySnapshot snapshot = Gooey.snapshot(frame);
+                        GooeySnapshot.Node root = snapshot.getRoot();
+                        assertEquals("Incorrect result", frame, root.getComponent());
+                        assertEquals("Incorrect result", 0, root.getDepth());
+                        assertEquals("Incorrect result", null, root.getParent());
+                        assertEquals("Incorrect result", snapshot.size(), snapshot.getNodes().size());
+                        assertEquals("Incorrect result", root, snapshot.getNodes().get(0));
+
+                        List<GooeySnapshot.Node> weights = snapshot.find(new GooeySnapshot.Criteria() {
+                            @Override
+                            public boolean isAccepted(GooeySnapshot.Node node) {
+                                return "weight".equals(node.getName());
+                            }
+                        });
+                        assertEquals("Incorrect result", 1, weights.size());
+                        GooeySnapshot.Node weight = weights.get(0);
+                        assertEquals("Incorrect result", JTextField.class, weight.getType());
+                        assertEquals("Incorrect result", Gooey.getComponent(frame, JTextField.class, "weight"),
+                                     weight.getComponent());
+                        assertTrue("Incorrect result", weight.getDepth() > 0);
+                        assertTrue("Incorrect result", weight.getParent().getChildren().contains(weight));
+                        assertEquals("Incorrect result", weight.getDepth() - 1, weight.getParent().getDepth());
+
+                        List<GooeySnapshot.Node> labels = snapshot.find(new GooeySnapshot.Criteria() {
+                            @Override
+                            public boolean isAccepted(GooeySnapshot.Node node) {
+                                return node.getType() == JLabel.class && "Weight (lb)".equals(node.getText());
+                            }
+                        });
+                        assertEquals("Incorrect result", 1, labels.size());
+
+                        List<JTextField> fields = snapshot.getComponents(GooeyMatcher.byType(JTextField.class));
+                        assertEquals("Incorrect result", Gooey.getComponents(frame, JTextField.class), fields);
+
+                        frame.dispose();
+                    }
+                });
+    }
+
+    @Test
+    public void testBMISearchedInParallel() {
+        Gooey.capture(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        BMI.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame frame) {
+                        GooeyMatcher fields = GooeyMatcher.byType(JTextField.class);
+                        List<JTextField> parallel = Gooey.getComponents(frame, fields, GooeyFlag.SEARCH_PARALLEL);
+                        assertEquals("Incorrect result", Gooey.getComponents(frame, fields), parallel);
+                        assertEquals("Incorrect result", 2, parallel.size());
+
+                        GooeyMatcher go = GooeyMatcher.byType(JButton.class).and(GooeyMatcher.byText("Go"));
+                        List<JButton> buttons = Gooey.getComponents(frame, go, GooeyFlag.SEARCH_PARALLEL);
+                        assertEquals("Incorrect result", 1, buttons.size());
+
+                        GooeyCriteria editable = new GooeyCriteria() {
+                            @Override
+                            public boolean isAccepted(Component obj) {
+                                return obj instanceof JTextField && ((JTextField) obj).isEditable();
+                            }
+                        };
+                        assertEquals("Incorrect result", parallel,
+                                     Gooey.getComponents(frame, editable, GooeyFlag.SEARCH_PARALLEL));
+
+                        frame.dispose();
+                    }
+                });
+    }
+
     @Test
     public void testMainClassJFrameDisplaysMessageDialogOnce() {
         Gooey.capture(
@@ -247,6 +728,33 @@ public class GooeyTestFrameWithComponents {
                 });
     }
 
+    @Test
+    public void testMainClassJFrameDisplaysDialogOnStartInSequence() {
+        Gooey.capture(
+                new GooeySequence() {
+                    @Override
+                    public void invoke() {
+                        MainClassJFrameDisplaysDialogOnStart.main(null);
+                    }
+
+                    @Override
+                    public void handle(GooeyStream windows) {
+                        JFrame frame = windows.next(JFrame.class);
+                        assertEquals("Incorrect result", "Welcome", frame.getTitle());
+
+                        JDialog dialog = windows.next(JDialog.class);
+                        assertTrue("dialog should be showing", dialog.isShowing());
+                        Gooey.getLabel(dialog, "Hello World");
+                        Gooey.getButton(dialog, "OK").doClick();
+                        assertFalse("dialog should be hidden", dialog.isShowing());
+
+                        assertTrue("Incorrect result", frame.isShowing());
+                        frame.dispose();
+                        assertFalse("Incorrect result", frame.isShowing());
+                    }
+                });
+    }
+
     @Test
     public void testMainClassJFrameDisplayItself() {
         Gooey.capture(
@@ -495,6 +1003,16 @@ public class GooeyTestFrameWithComponents {
         }
     }
 
+    // JFrame that displays a dialog as soon as it is displayed
+    private static class MainClassJFrameDisplaysDialogOnStart {
+        public static void main(String[] args) {
+            JFrame f = new JFrame("Welcome");
+            f.setSize(new Dimension(150, 200));
+            f.setVisible(true);
+            JOptionPane.showMessageDialog(f, "Hello World");
+        }
+    }
+
     // JFrame that displays itself (potentially many times)
     private static class MainClassJFrameDisplaysItself {
         public static void main(String[] args) {
@@ -29,11 +29,13 @@ import org.junit.Test;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class GooeyTestMenu {
 
@@ -254,6 +256,56 @@ public class GooeyTestMenu {
         assertTrue("Incorrect result", items.contains(Gooey.getMenu(help, "About")));
     }
 
+    @Test
+    public void testHasUniqueMenus() {
+        JMenuBar menuBar = Gooey.getMenuBar(new LovesMe());
+        JMenu help = Gooey.getSubMenu(menuBar, "Help", GooeyFlag.MATCH_UNIQUE);
+        assertEquals("Incorrect result", "About", Gooey.getMenu(help, "About", GooeyFlag.MATCH_UNIQUE).getText());
+
+        JMenu menu = new JMenu("Duplicates");
+        menu.add(new JMenuItem("Copy"));
+        menu.add(new JMenuItem("Copy"));
+        Gooey.getMenu(menu, "Copy");
+        try {
+            Gooey.getMenu(menu, "Copy", GooeyFlag.MATCH_UNIQUE);
+            fail("Duplicate menu not reported");
+        } catch (AssertionError e) {
+            assertTrue("Incorrect result", e.getMessage().startsWith("More than one menu \"Copy\" found"));
+        }
+    }
+
+    @Test
+    public void testHasMenuPaths() {
+        JMenuBar menuBar = Gooey.getMenuBar(new LovesMe());
+        JMenu help = Gooey.getSubMenu(menuBar, "Help");
+
+        assertEquals("Incorrect result", help, Gooey.getMenuPath(menuBar, "Help"));
+        assertEquals("Incorrect result", Gooey.getMenu(help, "About"), Gooey.getMenuPath(menuBar, "Help/About"));
+        assertEquals("Incorrect result", Gooey.getMenu(help, "Solution"), Gooey.getMenuPath(menuBar, "Help/Solution"));
+
+        JMenuItem export = new JMenuItem("Export");
+        export.setAccelerator(KeyStroke.getKeyStroke("control E"));
+        export.setMnemonic(KeyEvent.VK_E);
+        help.setMnemonic(KeyEvent.VK_H);
+        help.add(export);
+        assertEquals("Incorrect result", export, Gooey.getMenuPath(menuBar, "Help/Export"));
+        assertEquals("Incorrect result", export,
+                     Gooey.getMenuByAccelerator(menuBar, KeyStroke.getKeyStroke("control E")));
+        assertEquals("Incorrect result", export, Gooey.getMenuByMnemonic(menuBar, KeyEvent.VK_H, KeyEvent.VK_E));
+    }
+
+    @Test
+    public void testHasMenuSelectors() {
+        JMenuBar menuBar = Gooey.getMenuBar(new LovesMe());
+        JMenu help = Gooey.getSubMenu(menuBar, "Help");
+
+        assertEquals("Incorrect result", help, Gooey.select(menuBar, "JMenu[text=Help]"));
+        assertEquals("Incorrect result", Gooey.getMenu(help, "About"),
+                     Gooey.select(menuBar, "JMenu[text=Help] JMenuItem[text=About]"));
+        assertEquals("Incorrect result", Gooey.getMenus(help),
+                     Gooey.selectAll(menuBar, "JMenu[text=Help] > JMenuItem"));
+    }
+
     @Test
     public void testHasExit() {
         final JMenuBar menuBar = Gooey.getMenuBar(new LovesMe());
@@ -60,6 +60,51 @@ public class GooeyTestNoWindow {
                 });
     }
 
+    @Test(timeout = 2000)
+    public void testNoWindowDisplayedBeforeEventQueueIsIdle() {
+        Gooey.captureNone(
+                new GooeyFrame() {
+                    @Override
+                    public void invoke() {
+                        MainClassNoWindow.main(null);
+                    }
+
+                    @Override
+                    public void handle(JFrame window) {
+                    }
+                });
+    }
+
+    @Test(timeout = 2000, expected = AssertionError.class)
+    public void testWindowDisplayedWhenNoneExpected() {
+        final JFrame[] unexpected = new JFrame[1];
+        try {
+            Gooey.captureNone(
+                    new GooeyFrame() {
+                        @Override
+                        public void invoke() {
+                            SwingUtilities.invokeLater(new Runnable() {
+                                @Override
+                                public void run() {
+                                    JFrame frame = new JFrame("Unexpected");
+                                    frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+                                    unexpected[0] = frame;
+                                    frame.setVisible(true);
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void handle(JFrame window) {
+                        }
+                    });
+        } finally {
+            if (unexpected[0] != null) {
+                unexpected[0].dispose();
+            }
+        }
+    }
+
     // Exception test
     @Test(timeout = GooeyToolkitListener.TIMEOUT + 2000, expected = RuntimeException.class)
     public void testExceptionThrownInInvoke() {
@@ -74,6 +74,61 @@ public class GooeyTestTabbedPane {
         });
     }
 
+    @Test
+    public void testTabContents() {
+        Gooey.capture(new GooeyFrame() {
+            @Override
+            public void invoke() {
+                TabbedPaneDemo.main(null);
+            }
+
+            @Override
+            public void handle(JFrame frame) {
+                JTabbedPane tabPane = Gooey.getComponent(frame, JTabbedPane.class);
+
+                Gooey.getLabel((Container) Gooey.getTab(tabPane, "Tab 2"), "Panel #2");
+                Gooey.getLabel((Container) Gooey.getTabByToolTip(tabPane, "Still does nothing"), "Panel #3");
+                assertEquals("Incorrect result", 0, tabPane.getSelectedIndex());
+
+                Container tab4 = (Container) Gooey.selectTab(tabPane, "Tab 4");
+                Gooey.getLabel(tab4, "Panel #4 (has a preferred size of 410 x 50).");
+                assertEquals("Incorrect result", 3, tabPane.getSelectedIndex());
+                assertEquals("Incorrect result", Gooey.getTab(tabPane, "Tab 1"), Gooey.getTab(tabPane, 0));
+
+                frame.dispose();
+            }
+        });
+    }
+
+    @Test
+    public void testSelectedTabOnly() {
+        Gooey.capture(new GooeyFrame() {
+            @Override
+            public void invoke() {
+                TabbedPaneDemo.main(null);
+            }
+
+            @Override
+            public void handle(JFrame frame) {
+                JTabbedPane tabPane = Gooey.getComponent(frame, JTabbedPane.class);
+                assertEquals("Incorrect result", 4, Gooey.getComponents(tabPane, JLabel.class).size());
+
+                List<JLabel> labels = Gooey.getComponents(tabPane, JLabel.class, GooeyFlag.SKIP_HIDDEN_CARDS);
+                assertEquals("Incorrect result", 1, labels.size());
+                assertEquals("Incorrect result", "Panel #1", labels.get(0).getText());
+
+                tabPane.setSelectedIndex(2);
+                Gooey.getLabel(tabPane, "Panel #1");
+                assertEquals("Incorrect result", "Panel #3",
+                             Gooey.getComponent(tabPane, JLabel.class, null, GooeyFlag.SEARCH_VISIBLE).getText());
+                assertEquals("Incorrect result", 0,
+                             Gooey.find(frame, JLabel.class).with(GooeyFlag.SKIP_HIDDEN_CARDS).maxDepth(2).count());
+
+                frame.dispose();
+            }
+        });
+    }
+
     @SuppressWarnings("serial")
     private static class TabbedPaneDemo extends JPanel {
         public TabbedPaneDemo() {
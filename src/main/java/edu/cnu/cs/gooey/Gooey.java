@@ -14,12 +14,17 @@
  */
 package edu.cnu.cs.gooey;
 
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleRole;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>Title: Gooey</p>
@@ -39,13 +44,19 @@ public class Gooey {
     /**
      * Listener receiving window events from the toolkit (refer to {@link java.awt.Toolkit} for
      * details on the handling of GUI components). Listener is indirectly enabled by tests
-     * expecting that a window will be displayed.
+     * expecting that a window will be displayed. Captures subscribe to the listener independently,
+     * so tests may capture windows from several threads at once.
      */
     private static final GooeyToolkitListener ToolkitListener;
+    /**
+     * Longest pause (in milliseconds) between checks of whether the event queue is idle.
+     */
+    private static final long IDLE_POLL = 16;
 
     static {
         ToolkitListener = new GooeyToolkitListener();
-        Toolkit.getDefaultToolkit().addAWTEventListener(ToolkitListener, AWTEvent.WINDOW_EVENT_MASK);
+        Toolkit.getDefaultToolkit().addAWTEventListener(ToolkitListener,
+                                                        AWTEvent.WINDOW_EVENT_MASK | AWTEvent.HIERARCHY_EVENT_MASK);
     }
 
     /**
@@ -55,21 +66,110 @@ public class Gooey {
     }
 
     /**
-     * Returns the component held by a tab associated with the given title.
+     * Returns the component displayed by the tab with the given title. The tab is not selected.
      *
      * @param tabPane pane holding the tab.
      * @param title   title of the tab sought.
-     * @return component found.
+     * @return component displayed by the tab.
      * @throws AssertionError if no tab with the given title is found.
      */
-    public static Component getTab(JTabbedPane tabPane, final String title) {
-        for (int i = 0; i < tabPane.getTabCount(); i++) {
-            String tabTitle = tabPane.getTitleAt(i);
-            if (tabTitle.equals(title)) {
-                return tabPane.getTabComponentAt(i);
+    public static Component getTab(JTabbedPane tabPane, String title) {
+        return getTab(tabPane, title, new GooeyFlag[0]);
+    }
+
+    /**
+     * Returns the component displayed by the tab with the given title. Text may represent the title of the tab
+     * (default setting) or, with the option GooeyFlag.MATCH_BY_NAME, the programmatic name of the component the tab
+     * displays. Tabs are looked up in an index of the pane kept current as tabs are added, removed or retitled.
+     * The tab is not selected (refer to {@link #selectTab(JTabbedPane, String, GooeyFlag...)}).
+     *
+     * @param tabPane pane holding the tab.
+     * @param title   title of the tab sought (or name of its component).
+     * @param flags   optional flags for text search (by title, by name)
+     * @return component displayed by the tab.
+     * @throws AssertionError if no tab with the given title is found.
+     */
+    public static Component getTab(JTabbedPane tabPane, String title, GooeyFlag... flags) {
+        return tabPane.getComponentAt(indexOfTab(tabPane, title, flags));
+    }
+
+    /**
+     * Returns the component displayed by the tab with the given tool tip.
+     *
+     * @param tabPane pane holding the tab.
+     * @param toolTip tool tip of the tab sought.
+     * @return component displayed by the tab.
+     * @throws AssertionError if no tab with the given tool tip is found.
+     */
+    public static Component getTabByToolTip(JTabbedPane tabPane, String toolTip) {
+        int i = GooeyTabIndex.of(tabPane).indexOf(GooeyTabIndex.Key.TOOLTIP, toolTip);
+        if (i < 0) {
+            throw new AssertionError("No tab with tool tip \"" + toolTip + "\" found");
+        }
+        return tabPane.getComponentAt(i);
+    }
+
+    /**
+     * Selects the tab with the given title and returns the component it displays. Refer to
+     * {@link #getTab(JTabbedPane, String, GooeyFlag...)} for the options.
+     *
+     * @param tabPane pane holding the tab.
+     * @param title   title of the tab sought (or name of its component).
+     * @param flags   optional flags for text search (by title, by name)
+     * @return component displayed by the tab.
+     * @throws AssertionError if no tab with the given title is found.
+     */
+    public static Component selectTab(JTabbedPane tabPane, String title, GooeyFlag... flags) {
+        int i = indexOfTab(tabPane, title, flags);
+        tabPane.setSelectedIndex(i);
+        return tabPane.getComponentAt(i);
+    }
+
+    /**
+     * Returns the component displayed by a tab in nested tabbed panes. The first position selects a tab of the given
+     * pane; each following position selects a tab of the first tabbed pane within the component displayed by the
+     * previous tab (or of that component, if it is a tabbed pane).
+     *
+     * @param tabPane   outermost pane.
+     * @param positions positions of the tabs (starting at 0) from the outermost pane inwards.
+     * @return component displayed by the innermost tab.
+     * @throws AssertionError if a position is out of range or a tab displays no tabbed pane to continue with.
+     */
+    public static Component getTab(JTabbedPane tabPane, int... positions) {
+        Component content = tabPane;
+        for (int i = 0; i < positions.length; i++) {
+            JTabbedPane pane;
+            if (content instanceof JTabbedPane) {
+                pane = (JTabbedPane) content;
+            } else if (content instanceof Container) {
+                pane = getComponent((Container) content, JTabbedPane.class);
+            } else {
+                throw new AssertionError("No tabbed pane found in tab " + Arrays.toString(Arrays.copyOf(positions, i)));
             }
+            if (positions[i] < 0 || positions[i] >= pane.getTabCount()) {
+                throw new AssertionError("No tab " + Arrays.toString(Arrays.copyOf(positions, i + 1)) + " found");
+            }
+            content = pane.getComponentAt(positions[i]);
+        }
+        return content;
+    }
+
+    /**
+     * Utility method to find the position of a tab by title or by name of its component.
+     *
+     * @param tabPane pane holding the tab.
+     * @param title   title of the tab sought (or name of its component).
+     * @param flags   optional flags for text search (by title, by name)
+     * @return position of the tab.
+     * @throws AssertionError if no tab is found.
+     */
+    private static int indexOfTab(JTabbedPane tabPane, String title, GooeyFlag... flags) {
+        boolean byName = have(flags, GooeyFlag.MATCH_BY_NAME);
+        int i = GooeyTabIndex.of(tabPane).indexOf(byName ? GooeyTabIndex.Key.NAME : GooeyTabIndex.Key.TITLE, title);
+        if (i < 0) {
+            throw new AssertionError("No tab " + (byName ? "\'" + title + "\'" : "\"" + title + "\"") + " found");
         }
-        throw new AssertionError("No tab \"" + title + "\" found");
+        return i;
     }
 
     /**
@@ -80,49 +180,176 @@ public class Gooey {
      * @return label found.
      * @throws AssertionError if no label with the given text is found.
      */
-    public static JLabel getLabel(Container container, final String text) {
-        String message = "No label \"" + text + "\" found";
-        return getComponent(message, container, new GooeyCriteria() {
-            @Override
-            public boolean isAccepted(Component obj) {
-                if (obj instanceof JLabel) {
-                    String displayed = ((JLabel) obj).getText();
-                    if (text.equals(displayed)) {
-                        return true;
-                    }
+    public static JLabel getLabel(Container container, String text) {
+        String description = "label \"" + text + "\"";
+        GooeyIndex index = GooeyIndex.of(container);
+        if (index != null) {
+            return found(description, index.getComponentByText(JLabel.class, text));
+        }
+        return getComponent(description, container, GooeyMatcher.byType(JLabel.class).and(GooeyMatcher.byText(text)),
+                            false);
+    }
+
+    /**
+     * Returns the label whose text is accepted by the given comparison (e.g., <code>GooeyText.prefix("Weight")</code>
+     * or <code>GooeyText.normalized("total &amp; tax")</code>). The label may be nested within the container.
+     *
+     * @param container container holding the label.
+     * @param text      comparison accepting the text of the label sought.
+     * @return label found.
+     * @throws AssertionError if no label with an accepted text is found.
+     */
+    public static JLabel getLabel(Container container, GooeyText text) {
+        return getComponentByText(container, JLabel.class, "label", text);
+    }
+
+    /**
+     * Returns the button whose text is accepted by the given comparison (e.g., <code>GooeyText.regex("Save.*")</code>).
+     * The button may be nested within the container.
+     *
+     * @param container container holding the button.
+     * @param text      comparison accepting the text of the button sought.
+     * @return button found.
+     * @throws AssertionError if no button with an accepted text is found.
+     */
+    public static JButton getButton(Container container, GooeyText text) {
+        return getComponentByText(container, JButton.class, "button", text);
+    }
+
+    /**
+     * Funnel method for lookups by text comparison. If the container is indexed, only the indexed components of the
+     * given class are compared; otherwise the container is searched breadth first.
+     *
+     * @param container container holding the component.
+     * @param swing     class of component sought.
+     * @param kind      kind of component sought used in assertion messages.
+     * @param text      comparison accepting the text of the component sought.
+     * @return component found.
+     * @throws AssertionError if no component with an accepted text is found.
+     */
+    private static <T extends Component> T getComponentByText(Container container, Class<T> swing, String kind,
+                                                              GooeyText text) {
+        String description = kind + " \"" + text + "\"";
+        GooeyIndex index = GooeyIndex.of(container);
+        if (index != null) {
+            for (T c : index.getComponents(swing)) {
+                if (text.matches(c)) {
+                    return c;
                 }
-                return false;
             }
-        });
+            return found(description, null);
+        }
+        return getComponent(description, container, GooeyMatcher.byType(swing).and(GooeyMatcher.byText(text)), false);
     }
 
     /**
      * Returns the first component in a container that matches the given criteria.
      *
-     * @param message   assertion message used when no component is found.
-     * @param container container to evaluate.
-     * @param criteria  criteria indicating an accepting component.
-     * @param flags     (optional) flags for level search (nested, flat).
+     * @param description description of the component sought used in assertion messages.
+     * @param container   container to evaluate.
+     * @param criteria    criteria indicating an accepting component.
+     * @param menus       indicates whether the items of menus are searched.
+     * @param flags       (optional) flags for level search (nested, flat), pruning and uniqueness.
      * @return component found.
-     * @throws AssertionError if no component with the given class and name is found.
+     * @throws AssertionError if no component (or, with MATCH_UNIQUE, more than one) matches the criteria.
+     * @see GooeyHints
      */
     @SuppressWarnings("unchecked")
-    private static <T extends Component> T getComponent(String message, Container container, GooeyCriteria criteria,
-                                                        GooeyFlag... flags) {
+    private static <T extends Component> T getComponent(String description, Container container,
+                                                        GooeyCriteria criteria, boolean menus, GooeyFlag... flags) {
         boolean goNested = !have(flags, GooeyFlag.SEARCH_FLAT);
-        List<Component> toQueue = Arrays.asList(container.getComponents());
-        List<Component> queue = new LinkedList<Component>(toQueue);
-        while (!queue.isEmpty()) {
-            Component c = queue.remove(0);
+        boolean unique = have(flags, GooeyFlag.MATCH_UNIQUE);
+        boolean hinted = !menus && !unique && GooeyHints.isEnabled() && !have(flags, GooeyFlag.SEARCH_VISIBLE) &&
+                         !have(flags, GooeyFlag.SKIP_HIDDEN_CARDS);
+        if (hinted) {
+            Component hint = GooeyHints.follow(container, criteria, goNested ? Integer.MAX_VALUE : 1);
+            if (hint != null) {
+                return found(description, (T) hint);
+            }
+        }
+        GooeyTraversal traversal = new GooeyTraversal(container, goNested, menus);
+        traversal.setFlags(flags);
+        if (!menus) {
+            traversal.setFilter(GooeySummary.filter(container, criteria));
+        }
+        T found = search(description, container, traversal, criteria, unique);
+        if (hinted) {
+            GooeyHints.record(container, criteria, found);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the first component produced by a traversal that matches the given criteria. If uniqueness is
+     * requested the traversal continues past the first match, but only until a second match is found.
+     *
+     * @param description description of the component sought used in assertion messages.
+     * @param root        container where the traversal starts.
+     * @param traversal   traversal producing the components evaluated.
+     * @param criteria    criteria indicating an accepting component.
+     * @param unique      indicates whether a second match is an error.
+     * @return component found.
+     * @throws AssertionError if no component (or, if unique, more than one) matches the criteria.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Component> T search(String description, Container root, GooeyTraversal traversal,
+                                                  GooeyCriteria criteria, boolean unique) {
+        Component found = null;
+        for (Component c = traversal.next(); c != null; c = traversal.next()) {
             if (criteria.isAccepted(c)) {
-                return (T) c;
+                if (!unique) {
+                    return (T) c;
+                }
+                if (found != null) {
+                    throw new AssertionError("More than one " + description + " found: " + path(root, found) +
+                                             " and " + path(root, c));
+                }
+                found = c;
             }
-            if (goNested && c instanceof Container) {
-                toQueue = Arrays.asList(((Container) c).getComponents());
-                queue.addAll(toQueue);
+        }
+        return found(description, (T) found);
+    }
+
+    /**
+     * Returns the path from a container to a nested component as the simple class names of the components in
+     * between, each followed by its position within its parent (e.g., <code>JPanel[1]/JButton[0]</code>).
+     *
+     * @param root      container where the path starts.
+     * @param component component where the path ends.
+     * @return path to the component.
+     */
+    private static String path(Container root, Component component) {
+        StringBuilder path = new StringBuilder();
+        for (Component c = component; c != null && c != root; ) {
+            Container parent = c.getParent();
+            int position = -1;
+            if (parent != null) {
+                Component[] siblings = parent.getComponents();
+                for (int i = 0; i < siblings.length && position < 0; i++) {
+                    if (siblings[i] == c) {
+                        position = i;
+                    }
+                }
             }
+            path.insert(0, "/" + c.getClass().getSimpleName() + "[" + position + "]");
+            c = parent instanceof JPopupMenu ? ((JPopupMenu) parent).getInvoker() : parent;
+        }
+        return path.length() == 0 ? root.getClass().getSimpleName() : path.substring(1);
+    }
+
+    /**
+     * Utility method to check the result of a lookup.
+     *
+     * @param description description of the component sought used when no component is found.
+     * @param component   component found (if any).
+     * @return component found.
+     * @throws AssertionError if the component is null.
+     */
+    private static <T extends Component> T found(String description, T component) {
+        if (component == null) {
+            throw new AssertionError("No " + description + " found");
         }
-        throw new AssertionError(message);
+        return component;
     }
 
     /**
@@ -149,20 +376,14 @@ public class Gooey {
      * @return button found.
      * @throws AssertionError if no button with the given text is found.
      */
-    public static JButton getButton(Container container, final String text) {
-        String message = "No button \"" + text + "\" found";
-        return getComponent(message, container, new GooeyCriteria() {
-            @Override
-            public boolean isAccepted(Component obj) {
-                if (obj instanceof JButton) {
-                    String displayed = ((JButton) obj).getText();
-                    if (text.equals(displayed)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        });
+    public static JButton getButton(Container container, String text) {
+        String description = "button \"" + text + "\"";
+        GooeyIndex index = GooeyIndex.of(container);
+        if (index != null) {
+            return found(description, index.getComponentByText(JButton.class, text));
+        }
+        return getComponent(description, container, GooeyMatcher.byType(JButton.class).and(GooeyMatcher.byText(text)),
+                            false);
     }
 
     /**
@@ -196,52 +417,27 @@ public class Gooey {
      * @throws AssertionError if no menu with the given text is found.
      */
     public static JMenu getSubMenu(JMenuBar menubar, String text, GooeyFlag... flags) {
-        return getMenu(menubar.getComponents(), JMenu.class, text, flags);
+        return getMenu(menubar, JMenu.class, text, flags);
     }
 
     /**
      * Funnel method for public getMenu methods. It creates a criteria based on the given text and the flags
      * GooeyFlag.Menu.BY_NAME and SEARCH_FLAT. It then searches (breadth first) for a matching menu.
      *
-     * @param components menu components to evaluate
+     * @param parent     menu bar or menu whose menu components are evaluated
      * @param text       name or label of the menu sought.
      * @param flags      (optional) flags for text search (by label, by name) and level search (nested, flat)
      * @return menu found.
      * @throws AssertionError if no menu with the given text is found.
      */
-    @SuppressWarnings("unchecked")
-    private static <T extends JMenuItem> T getMenu(Component[] components, final Class<T> swing, final String text,
+    private static <T extends JMenuItem> T getMenu(Container parent, Class<T> swing, String text,
                                                    GooeyFlag... flags) {
         // create criteria
-        final boolean byName = have(flags, GooeyFlag.MATCH_BY_NAME);
-        GooeyCriteria criteria = new GooeyCriteria() {
-            @Override
-            public boolean isAccepted(Component obj) {
-                if (swing.isInstance(obj)) {
-                    T item = (T) obj;
-                    String str = byName ? item.getName() : item.getText();
-                    if (str.equals(text)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        };
+        boolean byName = have(flags, GooeyFlag.MATCH_BY_NAME);
+        GooeyCriteria criteria =
+                GooeyMatcher.byType(swing).and(byName ? GooeyMatcher.byName(text) : GooeyMatcher.byText(text));
         // search breadth first
-        boolean goNested = !have(flags, GooeyFlag.SEARCH_FLAT);
-        List<Component> toQueue = Arrays.asList(components);
-        List<Component> queue = new LinkedList<Component>(toQueue);
-        while (!queue.isEmpty()) {
-            Component c = queue.remove(0);
-            if (criteria.isAccepted(c)) {
-                return (T) c;
-            }
-            if (goNested && c instanceof JMenu) {
-                toQueue = Arrays.asList(((JMenu) c).getMenuComponents());
-                queue.addAll(toQueue);
-            }
-        }
-        throw new AssertionError("No menu \"" + text + "\" found");
+        return getComponent("menu \"" + text + "\"", parent, criteria, true, flags);
     }
 
     /**
@@ -260,7 +456,7 @@ public class Gooey {
      * @throws AssertionError if no sub-menu with the given text is found.
      */
     public static JMenu getSubMenu(JMenu submenu, String text, GooeyFlag... flags) {
-        return getMenu(submenu.getMenuComponents(), JMenu.class, text, flags);
+        return getMenu(submenu, JMenu.class, text, flags);
     }
 
     /**
@@ -279,7 +475,80 @@ public class Gooey {
      * @throws AssertionError if no menu with the given text is found.
      */
     public static JMenuItem getMenu(JMenu submenu, String text, GooeyFlag... flags) {
-        return getMenu(submenu.getMenuComponents(), JMenuItem.class, text, flags);
+        return getMenu(submenu, JMenuItem.class, text, flags);
+    }
+
+    /**
+     * Returns the menu or menu item at the end of a path of menus in the menu bar of a frame, such as
+     * <code>File/Export/PDF</code>. Path elements are the labels displayed (default setting) or, with the option
+     * GooeyFlag.MATCH_BY_NAME, the programmatic names of the menus, separated by slashes. Paths are looked up in an
+     * index of the whole menu bar that is built once and rebuilt only after the menus change.
+     *
+     * @param frame the frame whose menu is searched.
+     * @param path  path of the menu sought.
+     * @param flags optional flags for text search (by label, by name)
+     * @return menu found.
+     * @throws AssertionError if the frame has no menu bar or no menu with the given path is found.
+     */
+    public static JMenuItem getMenuPath(JFrame frame, String path, GooeyFlag... flags) {
+        return getMenuPath(getMenuBar(frame), path, flags);
+    }
+
+    /**
+     * Returns the menu or menu item at the end of a path of menus in a menu bar, such as
+     * <code>File/Export/PDF</code>. Path elements are the labels displayed (default setting) or, with the option
+     * GooeyFlag.MATCH_BY_NAME, the programmatic names of the menus, separated by slashes.
+     *
+     * @param menubar menu bar holding the menu.
+     * @param path    path of the menu sought.
+     * @param flags   optional flags for text search (by label, by name)
+     * @return menu found.
+     * @throws AssertionError if no menu with the given path is found.
+     */
+    public static JMenuItem getMenuPath(JMenuBar menubar, String path, GooeyFlag... flags) {
+        JMenuItem found = GooeyMenuIndex.of(menubar).getByPath(path, have(flags, GooeyFlag.MATCH_BY_NAME));
+        if (found == null) {
+            throw new AssertionError("No menu \"" + path + "\" found");
+        }
+        return found;
+    }
+
+    /**
+     * Returns the menu item in a menu bar with the given accelerator (e.g.,
+     * <code>KeyStroke.getKeyStroke("control S")</code>).
+     *
+     * @param menubar   menu bar holding the menu item.
+     * @param keystroke accelerator of the menu item sought.
+     * @return menu item found.
+     * @throws AssertionError if no menu item with the given accelerator is found.
+     */
+    public static JMenuItem getMenuByAccelerator(JMenuBar menubar, KeyStroke keystroke) {
+        JMenuItem found = GooeyMenuIndex.of(menubar).getByAccelerator(keystroke);
+        if (found == null) {
+            throw new AssertionError("No menu with accelerator \"" + keystroke + "\" found");
+        }
+        return found;
+    }
+
+    /**
+     * Returns the menu or menu item in a menu bar reached by typing a sequence of mnemonics, one per menu on its path
+     * (e.g., <code>KeyEvent.VK_F, KeyEvent.VK_E, KeyEvent.VK_P</code> for File/Export/PDF).
+     *
+     * @param menubar   menu bar holding the menu.
+     * @param mnemonics key codes of the mnemonics of the menus on the path.
+     * @return menu found.
+     * @throws AssertionError if no menu is reached by the mnemonics.
+     */
+    public static JMenuItem getMenuByMnemonic(JMenuBar menubar, int... mnemonics) {
+        JMenuItem found = GooeyMenuIndex.of(menubar).getByMnemonics(mnemonics);
+        if (found == null) {
+            StringBuilder keys = new StringBuilder();
+            for (int mnemonic : mnemonics) {
+                keys.append(keys.length() == 0 ? "" : ", ").append(KeyEvent.getKeyText(mnemonic));
+            }
+            throw new AssertionError("No menu with mnemonics \"" + keys + "\" found");
+        }
+        return found;
     }
 
     /**
@@ -334,20 +603,23 @@ public class Gooey {
      * @param container container to evaluate.
      * @param swing     class of component sought.
      * @param name      name of the component sought. It's not used if null.
-     * @param flags     (optional) flags for level search (nested, flat)
+     * @param flags     (optional) flags for level search (nested, flat), pruning (visible, displayed cards) and
+     *                  uniqueness.
      * @return component found.
      * @throws AssertionError if no component with the given class and name is found.
      */
-    public static <T extends Component> T getComponent(Container container, final Class<T> swing, final String name,
+    public static <T extends Component> T getComponent(Container container, Class<T> swing, String name,
                                                        GooeyFlag... flags) {
-        String message =
-                "No \"" + swing.getName() + "\" component" + (name == null ? "" : " \'" + name + "\'") + " found";
-        return getComponent(message, container, new GooeyCriteria() {
-            @Override
-            public boolean isAccepted(Component obj) {
-                return swing.isInstance(obj) && (name == null || name.equals(obj.getName()));
-            }
-        }, flags);
+        GooeyIndex index = GooeyIndex.of(container);
+        if (index != null && flags.length == 0) {
+            return index.getComponent(swing, name);
+        }
+        String description = "\"" + swing.getName() + "\" component" + (name == null ? "" : " \'" + name + "\'");
+        GooeyMatcher criteria = GooeyMatcher.byType(swing);
+        if (name != null) {
+            criteria = criteria.and(GooeyMatcher.byName(name));
+        }
+        return getComponent(description, container, criteria, false, flags);
     }
 
     /**
@@ -357,13 +629,25 @@ public class Gooey {
      * @param swing     class of components sought.
      * @return list of components found.
      */
-    public static <T extends Component> List<T> getComponents(Container container, final Class<T> swing) {
-        return getComponents(container, new GooeyCriteria() {
-            @Override
-            public boolean isAccepted(Component obj) {
-                return swing.isInstance(obj);
-            }
-        });
+    public static <T extends Component> List<T> getComponents(Container container, Class<T> swing) {
+        return getComponents(container, swing, new GooeyFlag[0]);
+    }
+
+    /**
+     * Returns all components of a given class found in a container.
+     *
+     * @param container container to evaluate.
+     * @param swing     class of components sought.
+     * @param flags     (optional) flags for level search (nested, flat) and pruning (visible, displayed cards).
+     * @return list of components found.
+     */
+    public static <T extends Component> List<T> getComponents(Container container, Class<T> swing,
+                                                              GooeyFlag... flags) {
+        GooeyIndex index = GooeyIndex.of(container);
+        if (index != null && flags.length == 0) {
+            return index.getComponents(swing);
+        }
+        return getComponents(container, GooeyMatcher.byType(swing), flags);
     }
 
     /**
@@ -373,24 +657,260 @@ public class Gooey {
      * @param criteria  criteria indicating an accepting component.
      * @return list of components found.
      */
-    @SuppressWarnings("unchecked")
     public static <T extends Component> List<T> getComponents(Container container, GooeyCriteria criteria) {
+        return getComponents(container, criteria, new GooeyFlag[0]);
+    }
+
+    /**
+     * Returns all components in a container that match the given criteria. With the flag SEARCH_PARALLEL a snapshot
+     * of the container is taken (refer to {@link #snapshot(Container)}) and matchers by class, name and text (refer
+     * to {@link GooeyMatcher}) are evaluated on several threads over the data it copied, which pays off for large
+     * hierarchies. Other criteria read live components, which are not thread safe, so they are evaluated on the
+     * calling thread.
+     *
+     * @param container container to evaluate.
+     * @param criteria  criteria indicating an accepting component.
+     * @param flags     (optional) flags for level search (nested, flat), pruning (visible, displayed cards) and
+     *                  parallel search.
+     * @return list of components found.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Component> List<T> getComponents(Container container, GooeyCriteria criteria,
+                                                              GooeyFlag... flags) {
+        if (have(flags, GooeyFlag.SEARCH_PARALLEL)) {
+            return GooeySnapshot.take(container).getComponents(criteria, true, flags);
+        }
         List<T> result = new ArrayList<T>();
-        List<Component> toQueue = Arrays.asList(container.getComponents());
-        List<Component> queue = new LinkedList<Component>(toQueue);
-        while (!queue.isEmpty()) {
-            Component c = queue.remove(0);
+        GooeyTraversal traversal = new GooeyTraversal(container, !have(flags, GooeyFlag.SEARCH_FLAT), false);
+        traversal.setFlags(flags);
+        traversal.setFilter(GooeySummary.filter(container, criteria));
+        for (Component c = traversal.next(); c != null; c = traversal.next()) {
             if (criteria.isAccepted(c)) {
                 result.add((T) c);
             }
-            if (c instanceof Container) {
-                toQueue = Arrays.asList(((Container) c).getComponents());
-                queue.addAll(toQueue);
+        }
+        return result;
+    }
+
+    /**
+     * Enables summaries of the types and names of the components nested in each container of a hierarchy. Searches
+     * of components by class and/or name (including those made with {@link GooeyMatcher} criteria) within the
+     * hierarchy skip containers that certainly hold no matching component. Summaries are computed the first time a
+     * search enters a container and are recomputed after components are added, removed or renamed, which makes
+     * them most useful for large hierarchies searched repeatedly.
+     *
+     * @param container container whose nested components are summarized (usually a captured window).
+     */
+    public static void summarize(Container container) {
+        GooeySummary.enable(container);
+    }
+
+    /**
+     * Returns the first component in a container matched by a selector such as
+     * <code>JPanel &gt; JButton[name=go]</code> or <code>JLabel[text^="Weight"]</code> (refer to
+     * {@link GooeySelector} for the syntax). Nested components are searched breadth first.
+     *
+     * @param container container to evaluate.
+     * @param selector  selector of the component sought.
+     * @return component found.
+     * @throws AssertionError if no component is matched by the selector.
+     * @throws IllegalArgumentException if the selector is malformed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Component> T select(Container container, String selector) {
+        Component found = GooeySelector.compile(selector).first(container);
+        if (found == null) {
+            throw new AssertionError("No component \"" + selector + "\" found");
+        }
+        return (T) found;
+    }
+
+    /**
+     * Returns all components in a container matched by a selector (refer to {@link GooeySelector} for the syntax).
+     *
+     * @param container container to evaluate.
+     * @param selector  selector of the components sought.
+     * @return list of components found.
+     * @throws IllegalArgumentException if the selector is malformed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Component> List<T> selectAll(Container container, String selector) {
+        return (List<T>) GooeySelector.compile(selector).all(container);
+    }
+
+    /**
+     * Indexes the components in a container by type, name and displayed text, and keeps the index current as
+     * components are added, removed, renamed or relabeled. Once indexed, lookups of components by class and name
+     * (without flags), of all components of a class, and of labels and buttons by text, given the same container, are
+     * answered from the index instead of searching the container.
+     *
+     * @param container container to index (usually a captured window).
+     * @return index of the container.
+     */
+    public static GooeyIndex index(Container container) {
+        return GooeyIndex.index(container);
+    }
+
+    /**
+     * Copies a container and the components nested in it (their class, name, displayed text, bounds and visibility)
+     * in a single hop to the event dispatch thread. Queries on the snapshot run on the calling thread against the
+     * copy, and each component found is the live component copied.
+     *
+     * @param container container copied (usually a captured window).
+     * @return snapshot of the container.
+     */
+    public static GooeySnapshot snapshot(Container container) {
+        return GooeySnapshot.take(container);
+    }
+
+    /**
+     * Indexes the visible components of a container by their bounds for lookups by geometry, such as the text field
+     * to the right of a label. The index is built from a snapshot of the container taken in a single hop to the event
+     * dispatch thread (refer to {@link #snapshot(Container)}), and reflects the layout at that moment.
+     *
+     * @param container container indexed (usually a captured window).
+     * @return spatial index of the container.
+     */
+    public static GooeySpatialIndex spatialIndex(Container container) {
+        return new GooeySpatialIndex(GooeySnapshot.take(container));
+    }
+
+    /**
+     * Returns the index of the accessible objects of a container by accessible role, name and description. The index
+     * is built the first time it's needed and kept current while the window lasts (refer to
+     * {@link GooeyAccessibleIndex}).
+     *
+     * @param container container indexed (usually a captured window).
+     * @return accessible index of the container.
+     */
+    public static GooeyAccessibleIndex accessibleIndex(Container container) {
+        return GooeyAccessibleIndex.of(container);
+    }
+
+    /**
+     * Returns the first accessible object in a container with the given role and accessible name. The object may be
+     * a component or part of one (e.g., a page of a tabbed pane).
+     *
+     * @param container container to evaluate.
+     * @param role      role of the object sought (e.g., {@code AccessibleRole.PUSH_BUTTON}), or null for any role.
+     * @param name      accessible name of the object sought.
+     * @return accessible object found.
+     * @throws AssertionError if no accessible object with the given role and name is found.
+     */
+    public static Accessible getAccessible(Container container, AccessibleRole role, String name) {
+        return GooeyAccessibleIndex.of(container).getAccessible(role, name);
+    }
+
+    /**
+     * Returns the first component of a class in a container with the given accessible role and name. Objects with
+     * that role and name that are not components of the class are skipped.
+     *
+     * @param container container to evaluate.
+     * @param role      role of the component sought, or null for any role.
+     * @param name      accessible name of the component sought.
+     * @param swing     class of the component sought.
+     * @return component found.
+     * @throws AssertionError if no component of the given class with the given role and name is found.
+     */
+    public static <T extends Component> T getAccessibleComponent(Container container, AccessibleRole role,
+                                                                  String name, Class<T> swing) {
+        return GooeyAccessibleIndex.of(container).getComponent(role, name, swing);
+    }
+
+    /**
+     * Returns the first accessible object in a container with the given role and accessible description (usually
+     * its tool tip).
+     *
+     * @param container   container to evaluate.
+     * @param role        role of the object sought, or null for any role.
+     * @param description accessible description of the object sought.
+     * @return accessible object found.
+     * @throws AssertionError if no accessible object with the given role and description is found.
+     */
+    public static Accessible getAccessibleByDescription(Container container, AccessibleRole role,
+                                                        String description) {
+        return GooeyAccessibleIndex.of(container).getAccessibleByDescription(role, description);
+    }
+
+    /**
+     * Resolves several lookups in a single breadth-first traversal of a container. For each lookup the first
+     * component matching it is found, and the traversal stops once every lookup is resolved. If the container is
+     * indexed (refer to {@link #index(Container)}) the lookups are resolved from the index instead.
+     *
+     * @param container container to evaluate.
+     * @param lookups   components sought.
+     * @return map from each lookup to the component found (in the order of the lookups).
+     * @throws AssertionError listing every lookup for which no component is found.
+     */
+    public static Map<GooeyLookup<?>, Component> resolve(Container container, GooeyLookup<?>... lookups) {
+        Map<GooeyLookup<?>, Component> found = new LinkedHashMap<GooeyLookup<?>, Component>();
+        GooeyIndex index = GooeyIndex.of(container);
+        if (index != null) {
+            for (GooeyLookup<?> lookup : lookups) {
+                Component c = lookup.lookup(index);
+                if (c != null) {
+                    found.put(lookup, c);
+                }
+            }
+        } else {
+            List<GooeyLookup<?>> pending = new ArrayList<GooeyLookup<?>>();
+            for (GooeyLookup<?> lookup : lookups) {
+                if (!pending.contains(lookup)) {
+                    pending.add(lookup);
+                }
+            }
+            GooeyTraversal traversal = new GooeyTraversal(container, true, false);
+            for (Component c = traversal.next(); c != null && !pending.isEmpty(); c = traversal.next()) {
+                for (int i = 0; i < pending.size(); i++) {
+                    if (pending.get(i).getCriteria().isAccepted(c)) {
+                        found.put(pending.remove(i--), c);
+                    }
+                }
             }
         }
+        StringBuilder missing = new StringBuilder();
+        Map<GooeyLookup<?>, Component> result = new LinkedHashMap<GooeyLookup<?>, Component>();
+        for (GooeyLookup<?> lookup : lookups) {
+            Component c = found.get(lookup);
+            if (c != null) {
+                result.put(lookup, c);
+            } else if (!result.containsKey(lookup)) {
+                result.put(lookup, null);
+                missing.append("\n  ").append(lookup);
+            }
+        }
+        if (missing.length() > 0) {
+            throw new AssertionError("No components found:" + missing);
+        }
         return result;
     }
 
+    /**
+     * Returns a lazy query over the components of a given class found in a container. Components are searched
+     * breadth first only as far as needed to produce the matches requested.
+     *
+     * @param container container to evaluate.
+     * @param swing     class of components sought.
+     * @return query producing the components found.
+     */
+    public static <T extends Component> GooeyQuery<T> find(Container container, Class<T> swing) {
+        return find(container, GooeyMatcher.byType(swing));
+    }
+
+    /**
+     * Returns a lazy query over the components in a container that match the given criteria. Unlike
+     * {@link #getComponents(Container, GooeyCriteria)}, no list is built: matches are produced as the query is
+     * iterated, and <code>skip</code>, <code>limit</code>, <code>first</code> and <code>count</code> stop the search
+     * as soon as possible.
+     *
+     * @param container container to evaluate.
+     * @param criteria  criteria indicating an accepting component.
+     * @return query producing the components found.
+     */
+    public static <T extends Component> GooeyQuery<T> find(Container container, GooeyCriteria criteria) {
+        return new GooeyQuery<T>(container, criteria);
+    }
+
     /**
      * Invokes a custom method displaying a window, waits for the window to display (within a timeout period) and
      * invokes
@@ -402,8 +922,9 @@ public class Gooey {
      *
      * @param doRun interface to display and handle the test of a window.
      * @throws AssertionError if no window is displayed.
+     * @see GooeyTimeout default waiting period.
      */
-    public synchronized static <T extends GooeyWindow<U>, U extends Window> void capture(T doRun) {
+    public static <T extends GooeyWindow<U>, U extends Window> void capture(T doRun) {
         capture("No window detected", doRun);
     }
 
@@ -418,18 +939,50 @@ public class Gooey {
      *
      * @param doRun interface to display and handle the test of a window.
      * @throws AssertionError if no window is displayed.
+     * @see GooeyTimeout default waiting period.
+     */
+    public static <T extends GooeyWindow<U>, U extends Window> void capture(String message, T doRun) {
+        capture(message, GooeyTimeout.getDefault(), doRun);
+    }
+
+    /**
+     * Invokes a custom method displaying a window, waits for the window to display (within the given timeout) and
+     * invokes a method where testing can be performed.
+     * If no window is detected within the timeout the method throws an AssertionError.
+     *
+     * @param timeout time (in milliseconds) to wait for the window.
+     * @param doRun   interface to display and handle the test of a window.
+     * @throws AssertionError if no window is displayed.
+     */
+    public static <T extends GooeyWindow<U>, U extends Window> void capture(long timeout, T doRun) {
+        capture("No window detected", timeout, doRun);
+    }
+
+    /**
+     * Invokes a custom method displaying a window, waits for the window to display (within the given timeout) and
+     * invokes a method where testing can be performed. If adaptive timeouts are enabled (see {@link GooeyTimeout})
+     * the wait may end before the timeout.
+     * If no window is detected within the timeout the method throws an AssertionError.
+     *
+     * @param message assertion message used when no window is detected.
+     * @param timeout time (in milliseconds) to wait for the window.
+     * @param doRun   interface to display and handle the test of a window.
+     * @throws AssertionError if no window is displayed.
      */
     @SuppressWarnings("unchecked")
-    public synchronized static <T extends GooeyWindow<U>, U extends Window> void capture(String message, T doRun) {
+    public static <T extends GooeyWindow<U>, U extends Window> void capture(String message, long timeout,
+                                                                                      T doRun) {
         // reset in cases when "doRun" is reused
         doRun.reset();
         // set capture criteria and begin listening
-        ToolkitListener.setCriteria(doRun.getEventCriteria());
+        GooeyToolkitListener.Subscription subscription = ToolkitListener.subscribe(doRun.getEventCriteria());
         // runs "doRun.invoke" to create window
-        SwingUtilities.invokeLater(doRun);
+        long start = System.nanoTime();
+        SwingUtilities.invokeLater(subscription.wrap(doRun));
         // "getTarget" waits until detecting window or timing out
-        U window = (U) ToolkitListener.getTarget();
+        U window = (U) subscription.getTarget(GooeyTimeout.deadline(doRun.getClass(), timeout));
         if (window != null) {
+            GooeyTimeout.record(doRun.getClass(), (System.nanoTime() - start) / 1000000);
             doRun.handle(window);
         }
         // wait until doRun.invoke finishes running
@@ -438,4 +991,154 @@ public class Gooey {
             throw new AssertionError(message);
         }
     }
+
+    /**
+     * Invokes a custom method and checks that it does not display a window.
+     * The parameter doRun is an instance of GooeyWindow whose <code>invoke</code> method is overridden with the code
+     * expected not to display a window of its class. Its <code>handle</code> method is not called. Instead of
+     * waiting for a whole timeout period, the check ends once <code>invoke</code> has returned, the event queue has
+     * no pending events and a short grace period has elapsed (refer to {@link GooeyTimeout#getGrace()}).
+     *
+     * @param doRun interface to invoke the code expected not to display a window.
+     * @throws AssertionError if a window is displayed.
+     */
+    public static <T extends GooeyWindow<U>, U extends Window> void captureNone(T doRun) {
+        captureNone("Window detected", doRun);
+    }
+
+    /**
+     * Invokes a custom method and checks that it does not display a window. The check ends once <code>invoke</code>
+     * has returned, the event queue has no pending events and a short grace period has elapsed, or once the default
+     * timeout period elapses if the event queue does not become idle.
+     *
+     * @param message assertion message used when a window is detected.
+     * @param doRun   interface to invoke the code expected not to display a window.
+     * @throws AssertionError if a window is displayed.
+     */
+    public static <T extends GooeyWindow<U>, U extends Window> void captureNone(String message, T doRun) {
+        // reset in cases when "doRun" is reused
+        doRun.reset();
+        // set capture criteria and begin listening
+        GooeyToolkitListener.Subscription subscription = ToolkitListener.subscribe(doRun.getEventCriteria());
+        long deadline = System.nanoTime() + GooeyTimeout.getDefault() * 1000000;
+        try {
+            // runs "doRun.invoke" and waits until it returns, the event queue drains and the grace period elapses
+            SwingUtilities.invokeLater(subscription.wrap(doRun));
+            Object window = null;
+            if (subscription.awaitInvoked(GooeyTimeout.getDefault())) {
+                awaitIdleEventQueue(subscription, deadline);
+                window = subscription.next(GooeyTimeout.getGrace());
+                if (window == null) {
+                    awaitIdleEventQueue(subscription, deadline);
+                }
+            }
+            if (window != null || subscription.hasTarget()) {
+                throw new AssertionError(message);
+            }
+        } finally {
+            subscription.cancel();
+        }
+        // wait until doRun.invoke finishes running
+        doRun.finish();
+    }
+
+    /**
+     * Waits until the event queue has no pending events, a window is accepted by the subscription or the deadline
+     * passes. The pause between checks doubles up to {@value #IDLE_POLL} milliseconds.
+     *
+     * @param subscription subscription of the capture expecting no window.
+     * @param deadline     time (as given by {@link System#nanoTime()}) to stop waiting.
+     */
+    private static void awaitIdleEventQueue(GooeyToolkitListener.Subscription subscription, long deadline) {
+        final boolean[] idle = new boolean[1];
+        Runnable check = new Runnable() {
+            @Override
+            public void run() {
+                idle[0] = Toolkit.getDefaultToolkit().getSystemEventQueue().peekEvent() == null;
+            }
+        };
+        long pause = 1;
+        while (true) {
+            try {
+                SwingUtilities.invokeAndWait(check);
+                if (idle[0] || subscription.hasTarget() || deadline - System.nanoTime() <= 0) {
+                    return;
+                }
+                // back off between polls so that a busy event queue is not flooded with checks
+                Thread.sleep(pause);
+                pause = Math.min(pause * 2, IDLE_POLL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Invokes a custom method displaying one or more windows and invokes a method where the windows can be tested in
+     * the order they are displayed.
+     * The parameter doRun is an instance of GooeySequence with 2 abstract methods: <code>invoke</code> (overridden
+     * with the code to display the windows) and <code>handle</code> (overridden with the code to test them). Windows
+     * are consumed from the stream given to <code>handle</code>, which waits for each window within a timeout period.
+     *
+     * @param doRun interface to display and handle the test of several windows.
+     * @throws AssertionError if a window requested from the stream is not displayed.
+     * @see GooeyTimeout default waiting period.
+     */
+    public static void capture(GooeySequence doRun) {
+        capture("No window detected", doRun);
+    }
+
+    /**
+     * Invokes a custom method displaying one or more windows and invokes a method where the windows can be tested in
+     * the order they are displayed.
+     *
+     * @param message assertion message used when a window requested from the stream is not displayed.
+     * @param doRun   interface to display and handle the test of several windows.
+     * @throws AssertionError if a window requested from the stream is not displayed.
+     * @see GooeyTimeout default waiting period.
+     */
+    public static void capture(String message, GooeySequence doRun) {
+        capture(message, GooeyTimeout.getDefault(), doRun);
+    }
+
+    /**
+     * Invokes a custom method displaying one or more windows and invokes a method where the windows can be tested in
+     * the order they are displayed.
+     *
+     * @param timeout time (in milliseconds) to wait for each window requested from the stream.
+     * @param doRun   interface to display and handle the test of several windows.
+     * @throws AssertionError if a window requested from the stream is not displayed.
+     */
+    public static void capture(long timeout, GooeySequence doRun) {
+        capture("No window detected", timeout, doRun);
+    }
+
+    /**
+     * Invokes a custom method displaying one or more windows and invokes a method where the windows can be tested in
+     * the order they are displayed. Windows open from the moment <code>invoke</code> is scheduled until
+     * <code>handle</code> returns are recorded.
+     *
+     * @param message assertion message used when a window requested from the stream is not displayed.
+     * @param timeout time (in milliseconds) to wait for each window requested from the stream.
+     * @param doRun   interface to display and handle the test of several windows.
+     * @throws AssertionError if a window requested from the stream is not displayed.
+     */
+    public static void capture(String message, long timeout, GooeySequence doRun) {
+        // reset in cases when "doRun" is reused
+        doRun.reset();
+        // begin listening to every window opened
+        GooeyToolkitListener.Subscription subscription = ToolkitListener.subscribe(doRun.getEventCriteria(), true);
+        // runs "doRun.invoke" to create windows
+        SwingUtilities.invokeLater(subscription.wrap(doRun));
+        try {
+            doRun.handle(new GooeyStream(message, timeout, subscription));
+        } finally {
+            subscription.cancel();
+        }
+        // wait until doRun.invoke finishes running
+        doRun.finish();
+    }
 }
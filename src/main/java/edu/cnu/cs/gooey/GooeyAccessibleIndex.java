@@ -0,0 +1,363 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleContext;
+import javax.accessibility.AccessibleRole;
+import javax.swing.*;
+import java.awt.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>Title: GooeyAccessibleIndex</p>
+ * <p>Description: Index of the accessible objects of a container (i.e., the tree of
+ * <code>AccessibleContext</code>s rooted at the container) by accessible role, name and description. Accessible
+ * roles and names tend to survive refactorings that rename or regroup components, and they also reach objects that
+ * are not components (e.g., the pages of a tabbed pane). The index is built in a single
+ * traversal of the accessible tree the first time it is needed and is stored with the container's root pane (or
+ * the container itself if it's a Swing component), so it lasts as long as the window. Changes of accessible names,
+ * descriptions and displayed data update the entries affected, while accessible children being added or removed
+ * cause the index to be rebuilt on the next lookup. The children of objects that are not components, and of lists,
+ * tables and trees, are not indexed, since they are created on demand each time they are requested (e.g., the cells
+ * of a table delegate to its renderer). Neither are the children of objects with more than {@value #MAX_CHILDREN}
+ * accessible children. When several objects match a lookup, they are returned in breadth-first order.
+ * </p>
+ *
+ * @see Gooey#getAccessible(Container, AccessibleRole, String)
+ */
+public final class GooeyAccessibleIndex {
+    /**
+     * Number of accessible children beyond which children are not indexed.
+     */
+    static final int MAX_CHILDREN = 256;
+    /**
+     * Roles of the objects whose accessible children are created each time they are requested.
+     */
+    private static final List<AccessibleRole> TRANSIENT_CHILDREN =
+            Arrays.asList(AccessibleRole.LIST, AccessibleRole.TABLE, AccessibleRole.TREE);
+
+    private final Container root;
+    private final Map<AccessibleContext, Entry> entries = new IdentityHashMap<AccessibleContext, Entry>();
+    private final Map<AccessibleRole, List<Entry>> byRole = new HashMap<AccessibleRole, List<Entry>>();
+    private final Map<String, List<Entry>> byName = new HashMap<String, List<Entry>>();
+    private final Map<String, List<Entry>> byDescription = new HashMap<String, List<Entry>>();
+    private final Listener listener = new Listener();
+    private volatile boolean stale = true;
+
+    private GooeyAccessibleIndex(Container root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the accessible index of a container, creating it if needed. Containers that are neither Swing
+     * components nor hold a root pane get a new index every time.
+     *
+     * @param root container indexed.
+     * @return index of the container.
+     */
+    static GooeyAccessibleIndex of(Container root) {
+        JComponent holder = holder(root);
+        if (holder == null) {
+            return new GooeyAccessibleIndex(root);
+        }
+        synchronized (holder) {
+            GooeyAccessibleIndex index = (GooeyAccessibleIndex) holder.getClientProperty(GooeyAccessibleIndex.class);
+            if (index == null) {
+                index = new GooeyAccessibleIndex(root);
+                holder.putClientProperty(GooeyAccessibleIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    private static JComponent holder(Container root) {
+        if (root instanceof JComponent) {
+            return (JComponent) root;
+        }
+        return root instanceof RootPaneContainer ? ((RootPaneContainer) root).getRootPane() : null;
+    }
+
+    /**
+     * Returns the first accessible object with the given role and name.
+     *
+     * @param role role of the object sought, or null for any role.
+     * @param name accessible name of the object sought.
+     * @return accessible object found.
+     * @throws AssertionError if no accessible object with the given role and name is found.
+     */
+    public Accessible getAccessible(AccessibleRole role, String name) {
+        Accessible found = first(byName, name, role, Accessible.class);
+        if (found == null) {
+            throw new AssertionError("No accessible " + describe(role) + " \'" + name + "\' found");
+        }
+        return found;
+    }
+
+    /**
+     * Returns the first accessible object with the given role and description.
+     *
+     * @param role        role of the object sought, or null for any role.
+     * @param description accessible description of the object sought.
+     * @return accessible object found.
+     * @throws AssertionError if no accessible object with the given role and description is found.
+     */
+    public Accessible getAccessibleByDescription(AccessibleRole role, String description) {
+        Accessible found = first(byDescription, description, role, Accessible.class);
+        if (found == null) {
+            throw new AssertionError(
+                    "No accessible " + describe(role) + " described as \"" + description + "\" found");
+        }
+        return found;
+    }
+
+    /**
+     * Returns the first component of a class with the given accessible role and name. Objects with that role and name
+     * that are not components of the class are skipped.
+     *
+     * @param role  role of the component sought, or null for any role.
+     * @param name  accessible name of the component sought.
+     * @param swing class of the component sought.
+     * @return component found.
+     * @throws AssertionError if no component of the given class with the given role and name is found.
+     */
+    public <T extends Component> T getComponent(AccessibleRole role, String name, Class<T> swing) {
+        T found = first(byName, name, role, swing);
+        if (found == null) {
+            throw new AssertionError(
+                    "No \"" + swing.getName() + "\" accessible " + describe(role) + " \'" + name + "\' found");
+        }
+        return found;
+    }
+
+    /**
+     * Returns all accessible objects with the given role.
+     *
+     * @param role role of the objects sought.
+     * @return list of accessible objects found.
+     */
+    public List<Accessible> getAccessibles(AccessibleRole role) {
+        refresh();
+        List<Accessible> result = new ArrayList<Accessible>();
+        synchronized (this) {
+            List<Entry> list = byRole.get(role);
+            if (list != null) {
+                for (Entry entry : list) {
+                    result.add(entry.accessible);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stops maintaining the index.
+     */
+    public void dispose() {
+        JComponent holder = holder(root);
+        if (holder != null) {
+            synchronized (holder) {
+                if (holder.getClientProperty(GooeyAccessibleIndex.class) == this) {
+                    holder.putClientProperty(GooeyAccessibleIndex.class, null);
+                }
+            }
+        }
+        synchronized (this) {
+            clear();
+        }
+    }
+
+    private <T> T first(Map<String, List<Entry>> map, String key, AccessibleRole role, Class<T> type) {
+        refresh();
+        synchronized (this) {
+            List<Entry> list = map.get(key);
+            if (list != null) {
+                for (Entry entry : list) {
+                    if ((role == null || role.equals(entry.role)) && type.isInstance(entry.accessible)) {
+                        return type.cast(entry.accessible);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String describe(AccessibleRole role) {
+        return role == null ? "object" : role.toDisplayString(Locale.ROOT);
+    }
+
+    /**
+     * Rebuilds the index if it's stale, traversing the accessible tree breadth first.
+     */
+    private void refresh() {
+        if (!stale) {
+            return;
+        }
+        // the tree lock is taken before the index lock, as accessible events may be fired holding the tree lock
+        synchronized (root.getTreeLock()) {
+            synchronized (this) {
+                if (!stale) {
+                    return;
+                }
+                stale = false;
+                clear();
+                List<Accessible> queue = new ArrayList<Accessible>();
+                AccessibleContext rootContext = root.getAccessibleContext();
+                if (rootContext != null) {
+                    rootContext.addPropertyChangeListener(listener);
+                    entries.put(rootContext, new Entry(-1, null, rootContext));
+                    addChildren(rootContext, queue);
+                }
+                for (int i = 0; i < queue.size(); i++) {
+                    Accessible accessible = queue.get(i);
+                    AccessibleContext context = accessible.getAccessibleContext();
+                    if (context == null || entries.containsKey(context)) {
+                        continue;
+                    }
+                    Entry entry = new Entry(i, accessible, context);
+                    entries.put(context, entry);
+                    put(byRole, entry.role, entry);
+                    put(byName, entry.name, entry);
+                    put(byDescription, entry.description, entry);
+                    context.addPropertyChangeListener(listener);
+                    if (accessible instanceof Component && !TRANSIENT_CHILDREN.contains(entry.role)) {
+                        addChildren(context, queue);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addChildren(AccessibleContext context, List<Accessible> queue) {
+        int count = context.getAccessibleChildrenCount();
+        if (count <= MAX_CHILDREN) {
+            for (int i = 0; i < count; i++) {
+                Accessible child = context.getAccessibleChild(i);
+                if (child != null) {
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    private void clear() {
+        for (AccessibleContext context : entries.keySet()) {
+            context.removePropertyChangeListener(listener);
+        }
+        entries.clear();
+        byRole.clear();
+        byName.clear();
+        byDescription.clear();
+    }
+
+    private synchronized void update(AccessibleContext context) {
+        Entry entry = entries.get(context);
+        if (entry != null && entry.accessible != null) {
+            take(byName, entry.name, entry);
+            take(byDescription, entry.description, entry);
+            entry.name = context.getAccessibleName();
+            entry.description = context.getAccessibleDescription();
+            insert(byName, entry.name, entry);
+            insert(byDescription, entry.description, entry);
+        }
+    }
+
+    private static <K> void put(Map<K, List<Entry>> map, K key, Entry entry) {
+        if (key != null) {
+            List<Entry> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<Entry>(1);
+                map.put(key, list);
+            }
+            list.add(entry);
+        }
+    }
+
+    private static <K> void insert(Map<K, List<Entry>> map, K key, Entry entry) {
+        if (key != null) {
+            List<Entry> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<Entry>(1);
+                map.put(key, list);
+            }
+            int i = Collections.binarySearch(list, entry);
+            list.add(i < 0 ? -i - 1 : i, entry);
+        }
+    }
+
+    private static <K> void take(Map<K, List<Entry>> map, K key, Entry entry) {
+        if (key != null) {
+            List<Entry> list = map.get(key);
+            if (list != null) {
+                list.remove(entry);
+                if (list.isEmpty()) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys under which an accessible object is indexed, ordered breadth first.
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final int sequence;
+        private final Accessible accessible;
+        private final AccessibleRole role;
+        private String name;
+        private String description;
+
+        Entry(int sequence, Accessible accessible, AccessibleContext context) {
+            this.sequence = sequence;
+            this.accessible = accessible;
+            this.role = context.getAccessibleRole();
+            this.name = context.getAccessibleName();
+            this.description = context.getAccessibleDescription();
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * Listener keeping the index current.
+     */
+    private class Listener implements PropertyChangeListener {
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            String property = e.getPropertyName();
+            if (AccessibleContext.ACCESSIBLE_CHILD_PROPERTY.equals(property)) {
+                stale = true;
+            } else if (AccessibleContext.ACCESSIBLE_NAME_PROPERTY.equals(property) ||
+                       AccessibleContext.ACCESSIBLE_DESCRIPTION_PROPERTY.equals(property) ||
+                       AccessibleContext.ACCESSIBLE_VISIBLE_DATA_PROPERTY.equals(property)) {
+                if (e.getSource() instanceof AccessibleContext) {
+                    update((AccessibleContext) e.getSource());
+                }
+            }
+        }
+    }
+}
@@ -15,6 +15,10 @@
 package edu.cnu.cs.gooey;
 
 public enum GooeyFlag {
-    MATCH_BY_NAME, // name- or text-based search. text takes precedence when both or none are present.
-    SEARCH_FLAT    // nested- or flat-based search. nested takes precedence when both or none are present.
+    MATCH_BY_NAME,     // name- or text-based search. text takes precedence when both or none are present.
+    SEARCH_FLAT,       // nested- or flat-based search. nested takes precedence when both or none are present.
+    MATCH_UNIQUE,      // first or unique match. searches fail if more than one component matches when present.
+    SEARCH_VISIBLE,    // all or visible components. invisible components and their contents are skipped when present.
+    SKIP_HIDDEN_CARDS, // all or displayed cards. hidden CardLayout cards and unselected tabs are skipped when present.
+    SEARCH_PARALLEL    // serial or parallel search. copied matchers are evaluated on several threads when present.
 }
@@ -0,0 +1,248 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Title: GooeyHints</p>
+ * <p>Description: Paths to components found by name. Hints are enabled with the system property
+ * <code>gooey.hints</code>. When enabled, each component found by a name-based search (e.g.,
+ * {@link Gooey#getComponent(Container, Class, String, GooeyFlag...)}) is remembered by the child indexes leading to
+ * it, keyed by the class of the container searched and the criteria. Later searches with the same key follow the
+ * path first, at a cost proportional to its depth, and fall back to a breadth-first search only when the component
+ * at the end of the path no longer matches. Hints are kept across runs when the system property
+ * <code>gooey.hints.file</code> names a file: they are loaded from it when first needed and saved to it when the
+ * virtual machine exits. Naming a file enables hints.
+ * </p>
+ * <p>Since names are expected to be unique, following a hint finds the same component a breadth-first search would.
+ * Should several components match, the one remembered is returned even if it is not the first.
+ * </p>
+ */
+public class GooeyHints {
+    private static final String FILE = System.getProperty("gooey.hints.file");
+    private static volatile boolean enabled = Boolean.getBoolean("gooey.hints") || FILE != null;
+    private static final Map<String, int[]> hints = new ConcurrentHashMap<String, int[]>();
+    private static volatile boolean loaded;
+
+    /**
+     * Private default (and only) constructor. No instance of GooeyHints can be created.
+     */
+    private GooeyHints() {
+    }
+
+    /**
+     * Indicates whether searches remember and follow hints.
+     *
+     * @return true if hints are enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables hints.
+     *
+     * @param enable true to remember and follow hints.
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Forgets all hints.
+     */
+    public static void clear() {
+        hints.clear();
+    }
+
+    /**
+     * Returns the component at the end of the path remembered for a search, if it still matches the criteria.
+     *
+     * @param container container searched.
+     * @param criteria  criteria indicating an accepting component.
+     * @param maxDepth  maximum length of the path.
+     * @return component found, or null if there is no hint or it is stale.
+     */
+    static Component follow(Container container, GooeyCriteria criteria, int maxDepth) {
+        String key = key(container, criteria);
+        if (key == null) {
+            return null;
+        }
+        load();
+        int[] path = hints.get(key);
+        if (path == null || path.length > maxDepth) {
+            return null;
+        }
+        Component c = container;
+        synchronized (container.getTreeLock()) {
+            for (int index : path) {
+                if (!(c instanceof Container) || index < 0 || index >= ((Container) c).getComponentCount()) {
+                    return null;
+                }
+                c = ((Container) c).getComponent(index);
+            }
+        }
+        return criteria.isAccepted(c) ? c : null;
+    }
+
+    /**
+     * Remembers the path to the component found by a search.
+     *
+     * @param container container searched.
+     * @param criteria  criteria indicating an accepting component.
+     * @param component component found.
+     */
+    static void record(Container container, GooeyCriteria criteria, Component component) {
+        String key = key(container, criteria);
+        if (key == null) {
+            return;
+        }
+        // indexes are collected from the component up to the container, then reversed
+        int[] steps = new int[8];
+        int depth = 0;
+        synchronized (container.getTreeLock()) {
+            for (Component c = component; c != container; c = c.getParent()) {
+                Container parent = c.getParent();
+                if (parent == null) {
+                    return;
+                }
+                int index = -1;
+                for (int j = 0; j < parent.getComponentCount() && index < 0; j++) {
+                    if (parent.getComponent(j) == c) {
+                        index = j;
+                    }
+                }
+                if (index < 0) {
+                    return;
+                }
+                if (depth == steps.length) {
+                    steps = Arrays.copyOf(steps, depth * 2);
+                }
+                steps[depth++] = index;
+            }
+        }
+        int[] path = new int[depth];
+        for (int i = 0; i < depth; i++) {
+            path[i] = steps[depth - 1 - i];
+        }
+        hints.put(key, path);
+    }
+
+    /**
+     * Returns the key of a search: the class of the container and the criteria (which must require a name, so that
+     * the key describes a single component and is the same across runs).
+     *
+     * @param container container searched.
+     * @param criteria  criteria indicating an accepting component.
+     * @return key of the search, or null if the search is not hinted.
+     */
+    private static String key(Container container, GooeyCriteria criteria) {
+        if (!(criteria instanceof GooeyMatcher) || ((GooeyMatcher) criteria).requiredName() == null) {
+            return null;
+        }
+        return container.getClass().getName() + " " + criteria;
+    }
+
+    /**
+     * Loads the hints saved in the hints file (if any) and arranges for them to be saved on exit. Hints are loaded
+     * once, so the lock is only taken until they are.
+     */
+    private static void load() {
+        if (loaded || FILE == null) {
+            return;
+        }
+        synchronized (GooeyHints.class) {
+            if (!loaded) {
+                read(new File(FILE));
+                Runtime.getRuntime().addShutdownHook(new Thread("Gooey hints") {
+                    @Override
+                    public void run() {
+                        save(new File(FILE));
+                    }
+                });
+                loaded = true;
+            }
+        }
+    }
+
+    private static void read(File file) {
+        if (!file.isFile()) {
+            return;
+        }
+        Properties saved = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                saved.load(in);
+            } finally {
+                in.close();
+            }
+            for (String key : saved.stringPropertyNames()) {
+                hints.put(key, parse(saved.getProperty(key)));
+            }
+        } catch (IOException e) {
+            // hints are an optimization: searches proceed without them
+        } catch (NumberFormatException e) {
+            hints.clear();
+        }
+    }
+
+    private static void save(File file) {
+        Properties saved = new Properties();
+        for (Map.Entry<String, int[]> e : hints.entrySet()) {
+            StringBuilder path = new StringBuilder();
+            for (int index : e.getValue()) {
+                path.append(path.length() == 0 ? "" : ".").append(index);
+            }
+            saved.setProperty(e.getKey(), path.toString());
+        }
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                saved.store(out, "Gooey component path hints");
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            // hints are an optimization: the next run searches without them
+        }
+    }
+
+    private static int[] parse(String path) {
+        if (path.length() == 0) {
+            return new int[0];
+        }
+        String[] parts = path.split("\\.");
+        int[] indexes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            indexes[i] = Integer.parseInt(parts[i]);
+            if (indexes[i] < 0) {
+                throw new NumberFormatException("Negative index in path \"" + path + "\"");
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import java.awt.*;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <p>Title: GooeyIndex</p>
+ * <p>Description: Index of the components in a container by type, by name and by displayed text (for buttons,
+ * labels and text components, as well as the titles of titled borders). The index is built in a single traversal
+ * and kept current by listening to components being added and removed, to changes of their names, text and borders,
+ * and to edits of the documents of text components, so repeated lookups are hash lookups instead of searches. Text
+ * is indexed exactly, ignoring case, and as plain text (i.e., with HTML tags removed, entities decoded and
+ * whitespace collapsed). Once created with {@link Gooey#index(Container)}, the index is used by the lookup methods
+ * of {@link Gooey} given the indexed container. When several components match a lookup, components are returned in
+ * the order they were indexed (i.e., breadth first for the components present when the index was built). The index
+ * of a window is stored with its root pane and released along with the window; indexes of AWT containers that are
+ * not Swing components are held until disposed.
+ * </p>
+ * <p>The text of text components is read lazily, on the first text lookup after the component is indexed or its
+ * document is edited, and without holding the index or the tree lock, since reading a document may wait for the
+ * thread editing it. Changing the title of a titled border already set is not notified by Swing: the index only
+ * sees titles of borders set after the component is indexed.
+ * </p>
+ */
+public class GooeyIndex {
+    private static final Map<Container, GooeyIndex> indexes = new WeakHashMap<Container, GooeyIndex>();
+    private static final String[] PROPERTIES = {"name", "text", "border", "document"};
+    private static final String[] NO_TEXT = {};
+
+    private final Container root;
+    private final Map<Component, Entry> entries = new IdentityHashMap<Component, Entry>();
+    private final Map<Class<?>, List<Component>> byType = new HashMap<Class<?>, List<Component>>();
+    private final Map<String, List<Component>> byName = new HashMap<String, List<Component>>();
+    private final Map<String, List<Component>> byText = new HashMap<String, List<Component>>();
+    private final Map<String, List<Component>> byLowerCaseText = new HashMap<String, List<Component>>();
+    private final Map<String, List<Component>> byPlainText = new HashMap<String, List<Component>>();
+    private final Queue<Component> edited = new ConcurrentLinkedQueue<Component>();
+    private final Listener listener = new Listener();
+    private long sequence;
+
+    private GooeyIndex(Container root) {
+        this.root = root;
+        // the tree lock is taken before the index lock, as container listeners are called holding the tree lock
+        synchronized (root.getTreeLock()) {
+            synchronized (this) {
+                root.addContainerListener(listener);
+                GooeyTraversal traversal = new GooeyTraversal(root, true, false);
+                for (Component c = traversal.next(); c != null; c = traversal.next()) {
+                    add(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a container, creating it if the container is not indexed yet. The index is stored with
+     * the container's root pane (or the container itself if it's a Swing component), so it's released along with the
+     * window. Other containers are held until the index is disposed.
+     *
+     * @param root container to index.
+     * @return index of the container.
+     */
+    static GooeyIndex index(Container root) {
+        JComponent holder = holder(root);
+        if (holder == null) {
+            synchronized (indexes) {
+                GooeyIndex index = indexes.get(root);
+                if (index == null) {
+                    index = new GooeyIndex(root);
+                    indexes.put(root, index);
+                }
+                return index;
+            }
+        }
+        synchronized (holder) {
+            GooeyIndex index = (GooeyIndex) holder.getClientProperty(GooeyIndex.class);
+            if (index == null) {
+                index = new GooeyIndex(root);
+                holder.putClientProperty(GooeyIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns the index of a container.
+     *
+     * @param root container indexed.
+     * @return index of the container, or null if the container is not indexed.
+     */
+    static GooeyIndex of(Container root) {
+        JComponent holder = holder(root);
+        if (holder == null) {
+            synchronized (indexes) {
+                return indexes.isEmpty() ? null : indexes.get(root);
+            }
+        }
+        return (GooeyIndex) holder.getClientProperty(GooeyIndex.class);
+    }
+
+    private static JComponent holder(Container root) {
+        if (root instanceof JComponent) {
+            return (JComponent) root;
+        }
+        return root instanceof RootPaneContainer ? ((RootPaneContainer) root).getRootPane() : null;
+    }
+
+    /**
+     * Returns the first indexed component of a class. If a name is provided (i.e., it's not null) then the
+     * component found will match both the class and name sought.
+     *
+     * @param swing class of component sought.
+     * @param name  name of the component sought. It's not used if null.
+     * @return component found.
+     * @throws AssertionError if no component with the given class and name is found.
+     */
+    public <T extends Component> T getComponent(Class<T> swing, String name) {
+        T found = find(swing, name);
+        if (found == null) {
+            throw new AssertionError(
+                    "No \"" + swing.getName() + "\" component" + (name == null ? "" : " \'" + name + "\'") + " found");
+        }
+        return found;
+    }
+
+    <T extends Component> T find(Class<T> swing, String name) {
+        return name == null ? first(swing) : first(swing, byName, name);
+    }
+
+    /**
+     * Returns all indexed components of a class.
+     *
+     * @param swing class of components sought.
+     * @return list of components found.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends Component> List<T> getComponents(Class<T> swing) {
+        List<Component> result = new ArrayList<Component>();
+        for (Map.Entry<Class<?>, List<Component>> e : byType.entrySet()) {
+            if (swing.isAssignableFrom(e.getKey())) {
+                result.addAll(e.getValue());
+            }
+        }
+        if (result.size() > 1) {
+            Collections.sort(result, new Comparator<Component>() {
+                @Override
+                public int compare(Component a, Component b) {
+                    long sa = entries.get(a).sequence;
+                    long sb = entries.get(b).sequence;
+                    return sa < sb ? -1 : (sa == sb ? 0 : 1);
+                }
+            });
+        }
+        return (List<T>) result;
+    }
+
+    /**
+     * Returns the first indexed component of a class displaying the given text.
+     *
+     * @param swing class of component sought.
+     * @param text  text displayed by the component.
+     * @return component found, or null if no component of the given class displays the text.
+     */
+    public <T extends Component> T getComponentByText(Class<T> swing, String text) {
+        readEdits();
+        return first(swing, byText, text);
+    }
+
+    /**
+     * Returns the first indexed component of a class displaying the given text, ignoring case.
+     *
+     * @param swing class of component sought.
+     * @param text  text displayed by the component (in any case).
+     * @return component found, or null if no component of the given class displays the text.
+     */
+    public <T extends Component> T getComponentByTextIgnoreCase(Class<T> swing, String text) {
+        readEdits();
+        return first(swing, byLowerCaseText, text.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the first indexed component of a class displaying the given text once both texts are reduced to plain
+     * text (i.e., HTML tags are removed, entities decoded and whitespace collapsed). For example, a label displaying
+     * <code>&lt;html&gt;&lt;b&gt;Total&lt;/b&gt; &amp;amp; tax&lt;/html&gt;</code> is found given
+     * <code>Total &amp; tax</code>.
+     *
+     * @param swing class of component sought.
+     * @param text  text displayed by the component.
+     * @return component found, or null if no component of the given class displays the text.
+     */
+    public <T extends Component> T getComponentByPlainText(Class<T> swing, String text) {
+        readEdits();
+        return first(swing, byPlainText, GooeyText.toPlainText(text));
+    }
+
+    /**
+     * Stops maintaining the index. Lookups given the container no longer use the index.
+     */
+    public void dispose() {
+        JComponent holder = holder(root);
+        if (holder == null) {
+            synchronized (indexes) {
+                if (indexes.get(root) == this) {
+                    indexes.remove(root);
+                }
+            }
+        } else {
+            synchronized (holder) {
+                if (holder.getClientProperty(GooeyIndex.class) == this) {
+                    holder.putClientProperty(GooeyIndex.class, null);
+                }
+            }
+        }
+        synchronized (this) {
+            root.removeContainerListener(listener);
+            for (Map.Entry<Component, Entry> e : entries.entrySet()) {
+                unlisten(e.getKey(), e.getValue());
+            }
+            entries.clear();
+            edited.clear();
+            byType.clear();
+            byName.clear();
+            byText.clear();
+            byLowerCaseText.clear();
+            byPlainText.clear();
+        }
+    }
+
+    private synchronized <T extends Component> T first(Class<T> swing) {
+        Component found = null;
+        long earliest = Long.MAX_VALUE;
+        for (Map.Entry<Class<?>, List<Component>> e : byType.entrySet()) {
+            if (swing.isAssignableFrom(e.getKey())) {
+                Component c = e.getValue().get(0);
+                if (entries.get(c).sequence < earliest) {
+                    found = c;
+                    earliest = entries.get(c).sequence;
+                }
+            }
+        }
+        return swing.cast(found);
+    }
+
+    private synchronized <T extends Component> T first(Class<T> swing, Map<String, List<Component>> map, String key) {
+        List<Component> candidates = map.get(key);
+        if (candidates != null) {
+            for (Component c : candidates) {
+                if (swing.isInstance(c)) {
+                    return swing.cast(c);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the texts under which a component is indexed: the text it displays and the title of its border.
+     *
+     * @param c component evaluated.
+     * @return texts of the component (possibly none).
+     */
+    private static String[] getTexts(Component c) {
+        String text = GooeyText.getText(c);
+        Border border = c instanceof JComponent ? ((JComponent) c).getBorder() : null;
+        String title = border instanceof TitledBorder ? ((TitledBorder) border).getTitle() : null;
+        if (title == null) {
+            return text == null ? NO_TEXT : new String[]{text};
+        }
+        return text == null ? new String[]{title} : new String[]{text, title};
+    }
+
+    private synchronized void addTree(Component c) {
+        add(c);
+        if (c instanceof Container) {
+            GooeyTraversal traversal = new GooeyTraversal((Container) c, true, false);
+            for (Component d = traversal.next(); d != null; d = traversal.next()) {
+                add(d);
+            }
+        }
+    }
+
+    private synchronized void removeTree(Component c) {
+        remove(c);
+        if (c instanceof Container) {
+            GooeyTraversal traversal = new GooeyTraversal((Container) c, true, false);
+            for (Component d = traversal.next(); d != null; d = traversal.next()) {
+                remove(d);
+            }
+        }
+    }
+
+    private void add(Component c) {
+        if (entries.containsKey(c)) {
+            return;
+        }
+        // the text of a text component is read later, when no lock is held (refer to readEdits)
+        boolean editable = c instanceof JTextComponent;
+        Entry entry = new Entry(sequence++, c.getName(), editable ? NO_TEXT : getTexts(c));
+        entries.put(c, entry);
+        put(byType, c.getClass(), c);
+        put(byName, entry.name, c);
+        for (String text : entry.texts) {
+            put(byText, text, c);
+            put(byLowerCaseText, text.toLowerCase(Locale.ROOT), c);
+            put(byPlainText, GooeyText.toPlainText(text), c);
+        }
+        for (String property : PROPERTIES) {
+            c.addPropertyChangeListener(property, listener);
+        }
+        if (c instanceof Container) {
+            ((Container) c).addContainerListener(listener);
+        }
+        if (editable) {
+            entry.document = ((JTextComponent) c).getDocument();
+            entry.edits = new Edits(c, entry);
+            entry.document.addDocumentListener(entry.edits);
+            entry.edits.mark();
+        }
+    }
+
+    private void remove(Component c) {
+        Entry entry = entries.remove(c);
+        if (entry != null) {
+            take(byType, c.getClass(), c);
+            take(byName, entry.name, c);
+            for (String text : entry.texts) {
+                take(byText, text, c);
+                take(byLowerCaseText, text.toLowerCase(Locale.ROOT), c);
+                take(byPlainText, GooeyText.toPlainText(text), c);
+            }
+            unlisten(c, entry);
+        }
+    }
+
+    private void unlisten(Component c, Entry entry) {
+        for (String property : PROPERTIES) {
+            c.removePropertyChangeListener(property, listener);
+        }
+        if (c instanceof Container) {
+            ((Container) c).removeContainerListener(listener);
+        }
+        if (entry.document != null) {
+            entry.document.removeDocumentListener(entry.edits);
+        }
+    }
+
+    private synchronized void update(Component c) {
+        Entry entry = entries.get(c);
+        if (entry != null) {
+            take(byName, entry.name, c);
+            entry.name = c.getName();
+            insert(byName, entry.name, c, entry.sequence);
+            if (entry.edits == null) {
+                setTexts(c, entry, getTexts(c));
+            } else {
+                if (entry.document != ((JTextComponent) c).getDocument()) {
+                    entry.document.removeDocumentListener(entry.edits);
+                    entry.document = ((JTextComponent) c).getDocument();
+                    entry.document.addDocumentListener(entry.edits);
+                }
+                entry.edits.mark();
+            }
+        }
+    }
+
+    private void setTexts(Component c, Entry entry, String[] texts) {
+        for (String text : entry.texts) {
+            take(byText, text, c);
+            take(byLowerCaseText, text.toLowerCase(Locale.ROOT), c);
+            take(byPlainText, GooeyText.toPlainText(text), c);
+        }
+        entry.texts = texts;
+        for (String text : entry.texts) {
+            insert(byText, text, c, entry.sequence);
+            insert(byLowerCaseText, text.toLowerCase(Locale.ROOT), c, entry.sequence);
+            insert(byPlainText, GooeyText.toPlainText(text), c, entry.sequence);
+        }
+    }
+
+    /**
+     * Reads the text of the text components indexed or edited since last read. Texts are read without holding the
+     * index lock, as the thread editing a document holds its lock while notifying the index. A component edited
+     * again while its text is read remains marked and is read again on the next lookup.
+     */
+    private void readEdits() {
+        for (Component c = edited.poll(); c != null; c = edited.poll()) {
+            Entry entry;
+            synchronized (this) {
+                entry = entries.get(c);
+            }
+            if (entry != null) {
+                entry.dirty = false;
+                String[] texts = getTexts(c);
+                synchronized (this) {
+                    if (entries.get(c) == entry) {
+                        setTexts(c, entry, texts);
+                    }
+                }
+            }
+        }
+    }
+
+    private static <K> void put(Map<K, List<Component>> map, K key, Component c) {
+        if (key != null) {
+            List<Component> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<Component>(1);
+                map.put(key, list);
+            }
+            list.add(c);
+        }
+    }
+
+    private <K> void insert(Map<K, List<Component>> map, K key, Component c, long sequence) {
+        if (key != null) {
+            List<Component> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<Component>(1);
+                map.put(key, list);
+            }
+            int i = list.size();
+            while (i > 0 && entries.get(list.get(i - 1)).sequence > sequence) {
+                i--;
+            }
+            list.add(i, c);
+        }
+    }
+
+    private static <K> void take(Map<K, List<Component>> map, K key, Component c) {
+        if (key != null) {
+            List<Component> list = map.get(key);
+            if (list != null) {
+                list.remove(c);
+                if (list.isEmpty()) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys under which a component is indexed.
+     */
+    private static class Entry {
+        private final long sequence;
+        private String name;
+        private String[] texts;
+        private Document document;
+        private Edits edits;
+        private volatile boolean dirty;
+
+        Entry(long sequence, String name, String[] texts) {
+            this.sequence = sequence;
+            this.name = name;
+            this.texts = texts;
+        }
+    }
+
+    /**
+     * Listener marking the text of a text component to be read again as its document is edited. It takes no lock,
+     * since it's notified while the document is locked.
+     */
+    private class Edits implements DocumentListener {
+        private final Component component;
+        private final Entry entry;
+
+        Edits(Component component, Entry entry) {
+            this.component = component;
+            this.entry = entry;
+        }
+
+        void mark() {
+            if (!entry.dirty) {
+                entry.dirty = true;
+                edited.add(component);
+            }
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            mark();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            mark();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+        }
+    }
+
+    /**
+     * Listener keeping the index current.
+     */
+    private class Listener implements ContainerListener, PropertyChangeListener {
+        @Override
+        public void componentAdded(ContainerEvent e) {
+            addTree(e.getChild());
+        }
+
+        @Override
+        public void componentRemoved(ContainerEvent e) {
+            removeTree(e.getChild());
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            update((Component) e.getSource());
+        }
+    }
+}
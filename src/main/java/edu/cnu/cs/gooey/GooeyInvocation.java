@@ -0,0 +1,103 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import edu.cnu.cs.gooey.GooeyToolkitListener.EventCriteria;
+
+import java.awt.*;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CountDownLatch;
+
+public abstract class GooeyInvocation implements Runnable {
+    private RuntimeException exception;
+    private AssertionError assertion;
+    private volatile CountDownLatch done;
+
+    protected GooeyInvocation() {
+        exception = null;
+        assertion = null;
+        done = new CountDownLatch(1);
+    }
+
+    /**
+     * Returns criteria accepting the opening of windows of the given class.
+     *
+     * @param swing class of windows accepted.
+     * @return criteria accepting opened windows.
+     */
+    protected static EventCriteria windowOpened(final Class<? extends Window> swing) {
+        return new EventCriteria() {
+            @Override
+            public boolean isAccepted(Object obj, AWTEvent event) {
+                if (swing.isInstance(obj)) {
+                    long id = event.getID();
+                    if (id == WindowEvent.WINDOW_OPENED) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    public abstract EventCriteria getEventCriteria();
+
+    @Override
+    public final void run() {
+        try {
+            invoke();
+        } catch (RuntimeException e) {
+            exception = e;
+        } catch (AssertionError e) {
+            assertion = e;
+        } finally {
+            done.countDown();
+        }
+    }
+
+    public abstract void invoke();
+
+    public void reset() {
+        exception = null;
+        assertion = null;
+        done = new CountDownLatch(1);
+    }
+
+    /**
+     * Waits until <code>invoke</code> finishes running and rethrows any exception or assertion error it raised.
+     * Completion is signaled through a latch, so the waiting thread wakes up as soon as <code>invoke</code>
+     * returns and is guaranteed to see the exception and assertion recorded by the event dispatch thread.
+     */
+    public final void finish() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        if (assertion != null) {
+            throw assertion;
+        }
+    }
+}
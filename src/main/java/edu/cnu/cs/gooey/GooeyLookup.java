@@ -0,0 +1,114 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+import java.util.Map;
+
+/**
+ * <p>Title: GooeyLookup</p>
+ * <p>Description: Component sought by class and name or by class and displayed text. Lookups are resolved
+ * together by {@link Gooey#resolve(Container, GooeyLookup[])} in a single traversal of a container, and the
+ * component found for each is retrieved from the result with {@link #get(Map)}.
+ * </p>
+ */
+public final class GooeyLookup<T extends Component> {
+    private final Class<T> swing;
+    private final String name;
+    private final String text;
+    private final GooeyMatcher criteria;
+    private final String description;
+
+    private GooeyLookup(Class<T> swing, String name, String text, GooeyMatcher criteria, String description) {
+        this.swing = swing;
+        this.name = name;
+        this.text = text;
+        this.criteria = criteria;
+        this.description = description;
+    }
+
+    /**
+     * Returns a lookup of the first component of a class.
+     *
+     * @param swing class of component sought.
+     * @return lookup by class.
+     */
+    public static <T extends Component> GooeyLookup<T> byType(Class<T> swing) {
+        return new GooeyLookup<T>(swing, null, null, GooeyMatcher.byType(swing),
+                                  "\"" + swing.getName() + "\" component");
+    }
+
+    /**
+     * Returns a lookup of the first component of a class with the given name.
+     *
+     * @param swing class of component sought.
+     * @param name  name of the component sought.
+     * @return lookup by class and name.
+     */
+    public static <T extends Component> GooeyLookup<T> byName(Class<T> swing, String name) {
+        return new GooeyLookup<T>(swing, name, null, GooeyMatcher.byType(swing).and(GooeyMatcher.byName(name)),
+                                  "\"" + swing.getName() + "\" component \'" + name + "\'");
+    }
+
+    /**
+     * Returns a lookup of the first button or label of a class displaying the given text.
+     *
+     * @param swing class of component sought.
+     * @param text  text displayed by the component sought.
+     * @return lookup by class and text.
+     */
+    public static <T extends Component> GooeyLookup<T> byText(Class<T> swing, String text) {
+        return new GooeyLookup<T>(swing, null, text, GooeyMatcher.byType(swing).and(GooeyMatcher.byText(text)),
+                                  "\"" + swing.getName() + "\" component \"" + text + "\"");
+    }
+
+    /**
+     * Returns the component found for this lookup.
+     *
+     * @param found result of resolving this lookup.
+     * @return component found.
+     * @throws AssertionError if this lookup was not resolved.
+     */
+    public T get(Map<GooeyLookup<?>, Component> found) {
+        Component c = found.get(this);
+        if (c == null) {
+            throw new AssertionError("No " + description + " found");
+        }
+        return swing.cast(c);
+    }
+
+    GooeyMatcher getCriteria() {
+        return criteria;
+    }
+
+    T lookup(GooeyIndex index) {
+        return text != null ? index.getComponentByText(swing, text) : index.find(swing, name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GooeyLookup && ((GooeyLookup<?>) o).criteria.equals(criteria);
+    }
+
+    @Override
+    public int hashCode() {
+        return criteria.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,810 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Title: GooeyMatcher</p>
+ * <p>Description: Library of criteria that can be combined with <code>allOf</code>/<code>and</code>,
+ * <code>anyOf</code>/<code>or</code> and <code>not</code>/<code>negate</code>. Each matcher knows its relative cost
+ * (type tests are cheapest, followed by name and text comparisons, property reads and custom criteria), and
+ * combinations order their members from cheapest to most expensive so that cheap tests short-circuit expensive
+ * ones. Combinations are also flattened, and redundant type tests are merged: a conjunction keeps only the most
+ * specific type of a chain of subclasses (and matches nothing if two of its classes are unrelated), while a
+ * disjunction keeps only the most general one. Matchers implement <code>equals</code> and <code>hashCode</code>, so
+ * equal matchers can be used as keys.
+ * </p>
+ */
+public abstract class GooeyMatcher implements GooeyCriteria {
+    private static final int TYPE = 1;
+    private static final int NAME = 2;
+    private static final int TEXT = 3;
+    private static final int PROPERTY = 10;
+    private static final int CUSTOM = 20;
+    private static final Comparator<GooeyMatcher> BY_COST = new Comparator<GooeyMatcher>() {
+        @Override
+        public int compare(GooeyMatcher a, GooeyMatcher b) {
+            return a.cost() - b.cost();
+        }
+    };
+
+    /**
+     * Matcher accepting no component.
+     */
+    public static final GooeyMatcher NONE = new Or(new GooeyMatcher[0]);
+
+    GooeyMatcher() {
+    }
+
+    /**
+     * Returns the relative cost of evaluating this matcher.
+     *
+     * @return cost of this matcher.
+     */
+    abstract int cost();
+
+    /**
+     * Returns a type that every component accepted by this matcher has. Used to skip containers that hold no
+     * component of that type.
+     *
+     * @return type of every component accepted, or null if there is none.
+     */
+    Class<?> requiredType() {
+        return null;
+    }
+
+    /**
+     * Returns the name that every component accepted by this matcher has.
+     *
+     * @return name of every component accepted, or null if there is none.
+     */
+    String requiredName() {
+        return null;
+    }
+
+    /**
+     * Indicates whether this matcher only reads data copied by snapshots (i.e., class, name and text), and can
+     * therefore be evaluated on a snapshot off the event dispatch thread and on several threads at once.
+     *
+     * @return true if this matcher can be evaluated on snapshots.
+     */
+    boolean isCopied() {
+        return false;
+    }
+
+    /**
+     * Evaluates this matcher on the data a snapshot copied of one of its nodes. Only matchers that are
+     * {@link #isCopied() copied} can be evaluated this way.
+     *
+     * @param snapshot snapshot holding the node.
+     * @param i        number of the node evaluated.
+     * @return true if the node is accepted.
+     */
+    boolean isAccepted(GooeySnapshot snapshot, int i) {
+        throw new UnsupportedOperationException(toString());
+    }
+
+    /**
+     * Returns a matcher accepting components of a class (or its subclasses).
+     *
+     * @param swing class (or interface) of components accepted.
+     * @return matcher by type.
+     */
+    public static GooeyMatcher byType(Class<?> swing) {
+        return new ByType(swing);
+    }
+
+    /**
+     * Returns a matcher accepting components with the given name.
+     *
+     * @param name name of components accepted.
+     * @return matcher by name.
+     */
+    public static GooeyMatcher byName(String name) {
+        return new ByName(name);
+    }
+
+    /**
+     * Returns a matcher accepting buttons, labels and text components displaying the given text. A null text accepts
+     * components displaying no text.
+     *
+     * @param text text displayed by components accepted (or null).
+     * @return matcher by text.
+     */
+    public static GooeyMatcher byText(String text) {
+        return new ByText(GooeyText.exact(text));
+    }
+
+    /**
+     * Returns a matcher accepting buttons, labels and text components whose text is accepted by the given
+     * comparison (e.g., <code>GooeyText.regex("Save.*")</code>).
+     *
+     * @param text comparison accepting the text displayed by components accepted.
+     * @return matcher by text.
+     */
+    public static GooeyMatcher byText(GooeyText text) {
+        return new ByText(text);
+    }
+
+    /**
+     * Returns a matcher accepting components whose property (read through its <code>get</code> or <code>is</code>
+     * method) equals the given value. Components without such a getter are not accepted. Getters are invoked as
+     * declared by a public class or interface; a getter declared only by a class that is not public, and exceptions
+     * thrown by a getter, cause an exception to be thrown.
+     *
+     * @param property name of the property (e.g., "enabled" for <code>isEnabled</code>).
+     * @param value    value of the property in components accepted.
+     * @return matcher by property.
+     */
+    public static GooeyMatcher byProperty(String property, Object value) {
+        return new ByProperty(property, value);
+    }
+
+    /**
+     * Returns a matcher evaluating the given criteria. Criteria that are not matchers are considered the most
+     * expensive to evaluate.
+     *
+     * @param criteria criteria to evaluate.
+     * @return matcher of the criteria.
+     */
+    public static GooeyMatcher of(GooeyCriteria criteria) {
+        return criteria instanceof GooeyMatcher ? (GooeyMatcher) criteria : new Custom(criteria);
+    }
+
+    /**
+     * Returns a matcher accepting components accepted by all the given criteria.
+     *
+     * @param criteria criteria to combine.
+     * @return conjunction of the criteria.
+     */
+    public static GooeyMatcher allOf(GooeyCriteria... criteria) {
+        List<GooeyMatcher> members = new ArrayList<GooeyMatcher>();
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        for (GooeyCriteria c : criteria) {
+            GooeyMatcher m = of(c);
+            if (m instanceof And) {
+                for (GooeyMatcher n : ((And) m).members) {
+                    add(members, types, n, true);
+                }
+            } else {
+                add(members, types, m, true);
+            }
+        }
+        if (types.size() > 1 && !compatible(types)) {
+            return NONE;
+        }
+        return members.size() == 1 ? members.get(0) : new And(sorted(members));
+    }
+
+    /**
+     * Returns a matcher accepting components accepted by any of the given criteria.
+     *
+     * @param criteria criteria to combine.
+     * @return disjunction of the criteria.
+     */
+    public static GooeyMatcher anyOf(GooeyCriteria... criteria) {
+        List<GooeyMatcher> members = new ArrayList<GooeyMatcher>();
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        for (GooeyCriteria c : criteria) {
+            GooeyMatcher m = of(c);
+            if (m instanceof Or) {
+                for (GooeyMatcher n : ((Or) m).members) {
+                    add(members, types, n, false);
+                }
+            } else {
+                add(members, types, m, false);
+            }
+        }
+        return members.size() == 1 ? members.get(0) : new Or(sorted(members));
+    }
+
+    /**
+     * Returns a matcher accepting components not accepted by the given criteria.
+     *
+     * @param criteria criteria to negate.
+     * @return negation of the criteria.
+     */
+    public static GooeyMatcher not(GooeyCriteria criteria) {
+        GooeyMatcher m = of(criteria);
+        return m instanceof Not ? ((Not) m).member : new Not(m);
+    }
+
+    /**
+     * Returns a matcher accepting components accepted by this matcher and the given criteria.
+     *
+     * @param criteria criteria to combine.
+     * @return conjunction of this matcher and the criteria.
+     */
+    public GooeyMatcher and(GooeyCriteria criteria) {
+        return allOf(this, criteria);
+    }
+
+    /**
+     * Returns a matcher accepting components accepted by this matcher or the given criteria.
+     *
+     * @param criteria criteria to combine.
+     * @return disjunction of this matcher and the criteria.
+     */
+    public GooeyMatcher or(GooeyCriteria criteria) {
+        return anyOf(this, criteria);
+    }
+
+    /**
+     * Returns a matcher accepting components not accepted by this matcher.
+     *
+     * @return negation of this matcher.
+     */
+    public GooeyMatcher negate() {
+        return not(this);
+    }
+
+    /**
+     * Adds a member to a combination, merging type tests and dropping duplicates. In a conjunction a type is
+     * redundant if a subclass is also required; in a disjunction if a superclass is also accepted.
+     */
+    private static void add(List<GooeyMatcher> members, List<Class<?>> types, GooeyMatcher m, boolean conjunction) {
+        if (members.contains(m)) {
+            return;
+        }
+        if (m instanceof ByType) {
+            Class<?> type = ((ByType) m).swing;
+            for (int i = 0; i < types.size(); i++) {
+                Class<?> other = types.get(i);
+                boolean redundant = conjunction ? type.isAssignableFrom(other) : other.isAssignableFrom(type);
+                boolean replaces = conjunction ? other.isAssignableFrom(type) : type.isAssignableFrom(other);
+                if (redundant) {
+                    return;
+                }
+                if (replaces) {
+                    members.remove(new ByType(other));
+                    types.remove(i--);
+                }
+            }
+            types.add(type);
+        }
+        members.add(m);
+    }
+
+    /**
+     * Indicates whether a component can be an instance of all the given types, which are not subclasses of each
+     * other. That is the case if at most one of them is a class (i.e., the others are interfaces).
+     */
+    private static boolean compatible(List<Class<?>> types) {
+        int classes = 0;
+        for (Class<?> type : types) {
+            if (!type.isInterface()) {
+                classes++;
+            }
+        }
+        return classes <= 1;
+    }
+
+    private static GooeyMatcher[] sorted(List<GooeyMatcher> members) {
+        Collections.sort(members, BY_COST);
+        return members.toArray(new GooeyMatcher[members.size()]);
+    }
+
+    private static boolean copied(GooeyMatcher[] members) {
+        for (GooeyMatcher m : members) {
+            if (!m.isCopied()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static int hash(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
+    private static final class ByType extends GooeyMatcher {
+        private final Class<?> swing;
+
+        ByType(Class<?> swing) {
+            this.swing = swing;
+        }
+
+        @Override
+        int cost() {
+            return TYPE;
+        }
+
+        @Override
+        Class<?> requiredType() {
+            return swing;
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            return swing.isInstance(obj);
+        }
+
+        @Override
+        boolean isCopied() {
+            return true;
+        }
+
+        @Override
+        boolean isAccepted(GooeySnapshot snapshot, int i) {
+            return swing.isInstance(snapshot.component(i));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ByType && ((ByType) o).swing == swing;
+        }
+
+        @Override
+        public int hashCode() {
+            return swing.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return swing.getName();
+        }
+    }
+
+    private static final class ByName extends GooeyMatcher {
+        private final String name;
+
+        ByName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        int cost() {
+            return NAME;
+        }
+
+        @Override
+        String requiredName() {
+            return name;
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            return equal(name, obj.getName());
+        }
+
+        @Override
+        boolean isCopied() {
+            return true;
+        }
+
+        @Override
+        boolean isAccepted(GooeySnapshot snapshot, int i) {
+            return equal(name, snapshot.name(i));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ByName && equal(((ByName) o).name, name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * NAME + hash(name);
+        }
+
+        @Override
+        public String toString() {
+            return "[name=" + name + "]";
+        }
+    }
+
+    private static final class ByText extends GooeyMatcher {
+        private final GooeyText text;
+
+        ByText(GooeyText text) {
+            this.text = text;
+        }
+
+        @Override
+        int cost() {
+            return text.cost();
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            return text.matches(obj);
+        }
+
+        @Override
+        boolean isCopied() {
+            return true;
+        }
+
+        @Override
+        boolean isAccepted(GooeySnapshot snapshot, int i) {
+            return text.matchesText(snapshot.text(i));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ByText && equal(((ByText) o).text, text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * TEXT + hash(text);
+        }
+
+        @Override
+        public String toString() {
+            return "[text=" + text + "]";
+        }
+    }
+
+    private static final class ByProperty extends GooeyMatcher {
+        private static final Method MISSING;
+        private static final Map<Class<?>, Map<String, Method>> getters =
+                new ConcurrentHashMap<Class<?>, Map<String, Method>>();
+
+        static {
+            try {
+                MISSING = Object.class.getMethod("toString");
+            } catch (NoSuchMethodException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final String property;
+        private final Object value;
+
+        ByProperty(String property, Object value) {
+            if (property.length() == 0) {
+                throw new IllegalArgumentException("Empty property name");
+            }
+            this.property = property;
+            this.value = value;
+        }
+
+        @Override
+        int cost() {
+            return PROPERTY;
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            Method getter = getGetter(obj.getClass());
+            if (getter == MISSING) {
+                return false;
+            }
+            try {
+                return equal(value, getter.invoke(obj));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Getter of \"" + property + "\" is not accessible", e);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("Getter of \"" + property + "\" failed", cause);
+            }
+        }
+
+        private Method getGetter(Class<?> swing) {
+            Map<String, Method> methods = getters.get(swing);
+            if (methods == null) {
+                methods = new ConcurrentHashMap<String, Method>();
+                getters.put(swing, methods);
+            }
+            Method getter = methods.get(property);
+            if (getter == null) {
+                String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+                getter = MISSING;
+                for (String prefix : Arrays.asList("get", "is")) {
+                    try {
+                        getter = swing.getMethod(prefix + suffix);
+                        Method declared = getPublicMethod(getter.getDeclaringClass(), getter.getName());
+                        if (declared != null) {
+                            getter = declared;
+                        }
+                        break;
+                    } catch (NoSuchMethodException e) {
+                        // try next prefix
+                    }
+                }
+                methods.put(property, getter);
+            }
+            return getter;
+        }
+
+        /**
+         * Returns a method as declared by a public class or interface, since public methods declared by a class that
+         * is not public (e.g., a component defined in a test) cannot be invoked reflectively from other packages.
+         *
+         * @param type class or interface declaring the method.
+         * @param name name of the method, which has no parameters.
+         * @return method declared by a public supertype (or the type itself), or null if there is none.
+         */
+        private static Method getPublicMethod(Class<?> type, String name) {
+            if (type == null) {
+                return null;
+            }
+            if (Modifier.isPublic(type.getModifiers())) {
+                try {
+                    return type.getMethod(name);
+                } catch (NoSuchMethodException e) {
+                    return null;
+                }
+            }
+            for (Class<?> i : type.getInterfaces()) {
+                Method m = getPublicMethod(i, name);
+                if (m != null) {
+                    return m;
+                }
+            }
+            return getPublicMethod(type.getSuperclass(), name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ByProperty && ((ByProperty) o).property.equals(property) &&
+                   equal(((ByProperty) o).value, value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * property.hashCode() + hash(value);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + property + "=" + value + "]";
+        }
+    }
+
+    private static final class Custom extends GooeyMatcher {
+        private final GooeyCriteria criteria;
+
+        Custom(GooeyCriteria criteria) {
+            this.criteria = criteria;
+        }
+
+        @Override
+        int cost() {
+            return CUSTOM;
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            return criteria.isAccepted(obj);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Custom && ((Custom) o).criteria.equals(criteria);
+        }
+
+        @Override
+        public int hashCode() {
+            return criteria.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return criteria.toString();
+        }
+    }
+
+    private static final class And extends GooeyMatcher {
+        private final GooeyMatcher[] members;
+        private final int cost;
+
+        And(GooeyMatcher[] members) {
+            this.members = members;
+            int sum = 0;
+            for (GooeyMatcher m : members) {
+                sum += m.cost();
+            }
+            this.cost = sum;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+
+        @Override
+        Class<?> requiredType() {
+            for (GooeyMatcher m : members) {
+                if (m.requiredType() != null) {
+                    return m.requiredType();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        String requiredName() {
+            for (GooeyMatcher m : members) {
+                if (m.requiredName() != null) {
+                    return m.requiredName();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            for (GooeyMatcher m : members) {
+                if (!m.isAccepted(obj)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean isCopied() {
+            return copied(members);
+        }
+
+        @Override
+        boolean isAccepted(GooeySnapshot snapshot, int i) {
+            for (GooeyMatcher m : members) {
+                if (!m.isAccepted(snapshot, i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof And && Arrays.equals(((And) o).members, members);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(members);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            for (GooeyMatcher m : members) {
+                s.append(s.length() == 0 ? "" : " & ").append(m);
+            }
+            return "(" + s + ")";
+        }
+    }
+
+    private static final class Or extends GooeyMatcher {
+        private final GooeyMatcher[] members;
+        private final int cost;
+
+        Or(GooeyMatcher[] members) {
+            this.members = members;
+            int sum = 0;
+            for (GooeyMatcher m : members) {
+                sum += m.cost();
+            }
+            this.cost = sum;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            for (GooeyMatcher m : members) {
+                if (m.isAccepted(obj)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean isCopied() {
+            return copied(members);
+        }
+
+        @Override
+        boolean isAccepted(GooeySnapshot snapshot, int i) {
+            for (GooeyMatcher m : members) {
+                if (m.isAccepted(snapshot, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Or && Arrays.equals(((Or) o).members, members);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(members) + 1;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            for (GooeyMatcher m : members) {
+                s.append(s.length() == 0 ? "" : " | ").append(m);
+            }
+            return "(" + s + ")";
+        }
+    }
+
+    private static final class Not extends GooeyMatcher {
+        private final GooeyMatcher member;
+
+        Not(GooeyMatcher member) {
+            this.member = member;
+        }
+
+        @Override
+        int cost() {
+            return member.cost();
+        }
+
+        @Override
+        public boolean isAccepted(Component obj) {
+            return !member.isAccepted(obj);
+        }
+
+        @Override
+        boolean isCopied() {
+            return member.isCopied();
+        }
+
+        @Override
+        boolean isAccepted(GooeySnapshot snapshot, int i) {
+            return !member.isAccepted(snapshot, i);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Not && ((Not) o).member.equals(member);
+        }
+
+        @Override
+        public int hashCode() {
+            return ~member.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "!" + member;
+        }
+    }
+}
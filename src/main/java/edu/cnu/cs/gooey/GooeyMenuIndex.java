@@ -0,0 +1,217 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Title: GooeyMenuIndex</p>
+ * <p>Description: Index of the menus and menu items of a menu bar by path of displayed text (e.g.,
+ * <code>File/Export/PDF</code>), by path of names, by path of mnemonics and by accelerator. The index is built in a
+ * single pass over the menu bar the first time it is needed and is stored with the menu bar, so it lasts as long as
+ * the menu bar. It is invalidated (and rebuilt on the next lookup) when menus are added or removed or when the
+ * text, name, mnemonic or accelerator of a menu changes. When several items share a path or accelerator, the first
+ * one in menu order is indexed.
+ * </p>
+ */
+final class GooeyMenuIndex {
+    private static final String SEPARATOR = "/";
+
+    private final JMenuBar menubar;
+    private final Map<String, JMenuItem> byText = new HashMap<String, JMenuItem>();
+    private final Map<String, JMenuItem> byName = new HashMap<String, JMenuItem>();
+    private final Map<String, JMenuItem> byMnemonic = new HashMap<String, JMenuItem>();
+    private final Map<KeyStroke, JMenuItem> byAccelerator = new HashMap<KeyStroke, JMenuItem>();
+    private final List<Container> listened = new ArrayList<Container>();
+    private final Listener listener = new Listener();
+    private volatile boolean stale = true;
+
+    private GooeyMenuIndex(JMenuBar menubar) {
+        this.menubar = menubar;
+    }
+
+    /**
+     * Returns the index of a menu bar, creating it if needed.
+     *
+     * @param menubar menu bar indexed.
+     * @return index of the menu bar.
+     */
+    static GooeyMenuIndex of(JMenuBar menubar) {
+        synchronized (menubar) {
+            GooeyMenuIndex index = (GooeyMenuIndex) menubar.getClientProperty(GooeyMenuIndex.class);
+            if (index == null) {
+                index = new GooeyMenuIndex(menubar);
+                menubar.putClientProperty(GooeyMenuIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns the menu or menu item at the end of a path of texts or names separated by slashes.
+     *
+     * @param path   path of the menu sought.
+     * @param byName whether the path is made of names (otherwise of displayed texts).
+     * @return menu found, or null if none.
+     */
+    JMenuItem getByPath(String path, boolean byName) {
+        refresh();
+        synchronized (this) {
+            return (byName ? this.byName : byText).get(path);
+        }
+    }
+
+    /**
+     * Returns the menu or menu item reached by typing a sequence of mnemonics, starting from the menu bar.
+     *
+     * @param mnemonics key codes of the mnemonics.
+     * @return menu found, or null if none.
+     */
+    JMenuItem getByMnemonics(int... mnemonics) {
+        StringBuilder path = new StringBuilder();
+        for (int mnemonic : mnemonics) {
+            path.append(SEPARATOR).append(mnemonic);
+        }
+        refresh();
+        synchronized (this) {
+            return byMnemonic.get(path.toString());
+        }
+    }
+
+    /**
+     * Returns the menu item with the given accelerator.
+     *
+     * @param keystroke accelerator of the menu item sought.
+     * @return menu item found, or null if none.
+     */
+    JMenuItem getByAccelerator(KeyStroke keystroke) {
+        refresh();
+        synchronized (this) {
+            return byAccelerator.get(keystroke);
+        }
+    }
+
+    /**
+     * Rebuilds the index if it's stale.
+     */
+    private void refresh() {
+        if (!stale) {
+            return;
+        }
+        // the tree lock is taken before the index lock, as container listeners are called holding the tree lock
+        synchronized (menubar.getTreeLock()) {
+            synchronized (this) {
+                if (!stale) {
+                    return;
+                }
+                stale = false;
+                for (Container c : listened) {
+                    c.removeContainerListener(listener);
+                    c.removePropertyChangeListener(listener);
+                }
+                listened.clear();
+                byText.clear();
+                byName.clear();
+                byMnemonic.clear();
+                byAccelerator.clear();
+                listen(menubar);
+                for (int i = 0; i < menubar.getMenuCount(); i++) {
+                    JMenu menu = menubar.getMenu(i);
+                    if (menu != null) {
+                        add(menu, "", "", "");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes a menu item and, if it's a menu, the items in it.
+     *
+     * @param item           menu item indexed.
+     * @param textPrefix     path of texts to the item's parent, or null if some menu on the path has no text.
+     * @param namePrefix     path of names to the item's parent, or null if some menu on the path has no name.
+     * @param mnemonicPrefix path of mnemonics to the item's parent, or null if some menu on the path has none.
+     */
+    private void add(JMenuItem item, String textPrefix, String namePrefix, String mnemonicPrefix) {
+        String text = textPrefix == null || item.getText() == null ? null : textPrefix + item.getText();
+        String name = namePrefix == null || item.getName() == null ? null : namePrefix + item.getName();
+        String mnemonic = mnemonicPrefix == null || item.getMnemonic() == 0 ? null :
+                          mnemonicPrefix + SEPARATOR + item.getMnemonic();
+        put(byText, text, item);
+        put(byName, name, item);
+        put(byMnemonic, mnemonic, item);
+        if (!(item instanceof JMenu)) {
+            put(byAccelerator, item.getAccelerator(), item);
+        }
+        listen(item);
+        if (item instanceof JMenu) {
+            JMenu menu = (JMenu) item;
+            listen(menu.getPopupMenu());
+            for (Component c : menu.getMenuComponents()) {
+                if (c instanceof JMenuItem) {
+                    add((JMenuItem) c, text == null ? null : text + SEPARATOR,
+                        name == null ? null : name + SEPARATOR, mnemonic);
+                }
+            }
+        }
+    }
+
+    private static <K> void put(Map<K, JMenuItem> map, K key, JMenuItem item) {
+        if (key != null && !map.containsKey(key)) {
+            map.put(key, item);
+        }
+    }
+
+    private void listen(Container c) {
+        c.addContainerListener(listener);
+        c.addPropertyChangeListener(listener);
+        listened.add(c);
+    }
+
+    /**
+     * Listener invalidating the index. Rebuilding is left to the next lookup, as listeners may be called holding
+     * the tree lock.
+     */
+    private class Listener implements ContainerListener, PropertyChangeListener {
+        @Override
+        public void componentAdded(ContainerEvent e) {
+            stale = true;
+        }
+
+        @Override
+        public void componentRemoved(ContainerEvent e) {
+            stale = true;
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            String property = e.getPropertyName();
+            if ("text".equals(property) || "name".equals(property) || "mnemonic".equals(property) ||
+                "accelerator".equals(property)) {
+                stale = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Title: GooeyQuery</p>
+ * <p>Description: Lazy search of the components in a container that match a criteria. Components are visited
+ * breadth first and matches are produced one at a time as the query is iterated, so the hierarchy is only traversed
+ * as far as needed and no intermediate list is built. Queries may also prune the hierarchy by depth and by
+ * visibility. Queries are immutable: <code>skip</code>, <code>limit</code>, <code>maxDepth</code> and
+ * <code>with</code> return new queries.
+ * </p>
+ *
+ * @see Gooey#find(Container, GooeyCriteria)
+ */
+public class GooeyQuery<T extends Component> implements Iterable<T> {
+    private final Container container;
+    private final GooeyCriteria criteria;
+    private final int skip;
+    private final int limit;
+    private final int maxDepth;
+    private final GooeyFlag[] flags;
+
+    GooeyQuery(Container container, GooeyCriteria criteria) {
+        this(container, criteria, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, new GooeyFlag[0]);
+    }
+
+    private GooeyQuery(Container container, GooeyCriteria criteria, int skip, int limit, int maxDepth,
+                       GooeyFlag[] flags) {
+        this.container = container;
+        this.criteria = criteria;
+        this.skip = skip;
+        this.limit = limit;
+        this.maxDepth = maxDepth;
+        this.flags = flags;
+    }
+
+    /**
+     * Returns a query that ignores the first matches of this query.
+     *
+     * @param n number of matches ignored.
+     * @return query without the first n matches.
+     * @throws IllegalArgumentException if n is negative.
+     */
+    public GooeyQuery<T> skip(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative skip: " + n);
+        }
+        int remaining = limit == Integer.MAX_VALUE ? limit : Math.max(0, limit - n);
+        long skipped = (long) skip + n;
+        return new GooeyQuery<T>(container, criteria, (int) Math.min(skipped, Integer.MAX_VALUE), remaining, maxDepth,
+                                 flags);
+    }
+
+    /**
+     * Returns a query that stops after the given number of matches.
+     *
+     * @param n maximum number of matches.
+     * @return query with at most n matches.
+     * @throws IllegalArgumentException if n is negative.
+     */
+    public GooeyQuery<T> limit(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative limit: " + n);
+        }
+        return new GooeyQuery<T>(container, criteria, skip, Math.min(limit, n), maxDepth, flags);
+    }
+
+    /**
+     * Returns a query that does not descend below the given depth. Components held by the container have depth 1,
+     * so <code>maxDepth(1)</code> is a flat search.
+     *
+     * @param depth maximum depth of the components visited.
+     * @return query visiting components up to the given depth.
+     * @throws IllegalArgumentException if depth is less than 1.
+     */
+    public GooeyQuery<T> maxDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        return new GooeyQuery<T>(container, criteria, skip, limit, Math.min(maxDepth, depth), flags);
+    }
+
+    /**
+     * Returns a query that also applies the given flags: SEARCH_FLAT, SEARCH_VISIBLE and SKIP_HIDDEN_CARDS prune the
+     * components visited. Other flags are ignored.
+     *
+     * @param more flags applied.
+     * @return query applying the flags.
+     */
+    public GooeyQuery<T> with(GooeyFlag... more) {
+        GooeyFlag[] all = Arrays.copyOf(flags, flags.length + more.length);
+        System.arraycopy(more, 0, all, flags.length, more.length);
+        int depth = Arrays.asList(more).contains(GooeyFlag.SEARCH_FLAT) ? 1 : maxDepth;
+        return new GooeyQuery<T>(container, criteria, skip, limit, depth, all);
+    }
+
+    /**
+     * Returns the number of matches. Only the components needed to reach the limit (if any) are visited.
+     *
+     * @return number of matches.
+     */
+    public int count() {
+        int count = 0;
+        for (Iterator<T> i = iterator(); i.hasNext(); i.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first match.
+     *
+     * @return first component matching the criteria.
+     * @throws AssertionError if no component matches.
+     */
+    public T first() {
+        Iterator<T> i = iterator();
+        if (!i.hasNext()) {
+            throw new AssertionError("No component found");
+        }
+        return i.next();
+    }
+
+    /**
+     * Returns a list with all matches.
+     *
+     * @return list of components matching the criteria.
+     */
+    public List<T> toList() {
+        List<T> result = new ArrayList<T>();
+        for (T c : this) {
+            result.add(c);
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Matches();
+    }
+
+    /**
+     * Iterator producing matches as the hierarchy is traversed.
+     */
+    private class Matches implements Iterator<T> {
+        private final GooeyTraversal traversal = new GooeyTraversal(container, true, false);
+        private int skipped;
+        private int produced;
+        private Component next;
+
+        Matches() {
+            traversal.setFilter(GooeySummary.filter(container, criteria));
+            traversal.setFlags(flags);
+            traversal.setMaxDepth(maxDepth);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (produced >= limit) {
+                return false;
+            }
+            for (Component c = traversal.next(); c != null; c = traversal.next()) {
+                if (criteria.isAccepted(c)) {
+                    if (skipped < skip) {
+                        skipped++;
+                    } else {
+                        next = c;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = (T) next;
+            next = null;
+            produced++;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Title: GooeySelector</p>
+ * <p>Description: Compiled selector of components. A selector is a sequence of steps separated by whitespace (the
+ * next step matches a descendant) or by <code>&gt;</code> (the next step matches a child). A leading
+ * <code>&gt;</code> anchors the first step to the components directly held by the container searched. Each step
+ * names a class (by simple or fully-qualified name, matching subclasses too; <code>*</code> matches any class)
+ * followed by optional attribute tests on <code>name</code> or <code>text</code>, where the operators
+ * <code>=</code>, <code>^=</code>, <code>$=</code> and <code>*=</code> test for equality, prefix, suffix and
+ * substring. Values may be quoted. Sub-menus are entered through their pop-up menus, so the items of a menu are its
+ * children. For example:
+ * </p>
+ * <ul>
+ * <li><code>JPanel &gt; JButton[name=go]</code></li>
+ * <li><code>JLabel[text^="Weight"]</code></li>
+ * <li><code>JMenu[text=File] JMenuItem[name=open]</code></li>
+ * </ul>
+ * <p>The latest selectors parsed are cached by their text. Matching is done in a single breadth-first traversal that
+ * tracks which steps each component may still match, and subtrees where no step can match are not traversed.
+ * </p>
+ *
+ * @see Gooey#select(Container, String)
+ */
+public final class GooeySelector {
+    /**
+     * Number of compiled selectors cached.
+     */
+    private static final int SELECTORS = 256;
+    private static final Map<String, GooeySelector> cache = new LinkedHashMap<String, GooeySelector>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GooeySelector> eldest) {
+            return size() > SELECTORS;
+        }
+    };
+
+    private final String text;
+    private final Step[] steps;
+    private final long descendants;
+
+    private GooeySelector(String text, List<Step> steps, long descendants) {
+        this.text = text;
+        this.steps = steps.toArray(new Step[steps.size()]);
+        this.descendants = descendants;
+    }
+
+    /**
+     * Returns the compiled form of a selector. The latest selectors compiled are cached.
+     *
+     * @param selector text of the selector.
+     * @return compiled selector.
+     * @throws IllegalArgumentException if the selector is malformed.
+     */
+    public static GooeySelector compile(String selector) {
+        GooeySelector compiled;
+        synchronized (cache) {
+            compiled = cache.get(selector);
+        }
+        if (compiled == null) {
+            compiled = new Parser(selector).parse();
+            synchronized (cache) {
+                cache.put(selector, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the first component in a container (searched breadth first) matched by this selector.
+     *
+     * @param container container to evaluate.
+     * @return component found, or null if no component matches.
+     */
+    public Component first(Container container) {
+        List<Component> found = find(container, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Returns all components in a container (in breadth first order) matched by this selector.
+     *
+     * @param container container to evaluate.
+     * @return list of components found.
+     */
+    public List<Component> all(Container container) {
+        return find(container, Integer.MAX_VALUE);
+    }
+
+    private List<Component> find(Container container, int limit) {
+        List<Component> result = new ArrayList<Component>();
+        int last = steps.length - 1;
+        GooeyTraversal traversal = new GooeyTraversal(container, true, false, 1L);
+        // menu items are held by the pop-up menus of their menus, not by the menus themselves
+        traversal.setEnterMenus();
+        for (Component c = traversal.next(); c != null; c = traversal.next()) {
+            long reach = traversal.state();
+            long matched = 0;
+            for (long pending = reach; pending != 0; pending &= pending - 1) {
+                int i = Long.numberOfTrailingZeros(pending);
+                if (steps[i].matches(c)) {
+                    matched |= 1L << i;
+                }
+            }
+            if ((matched & (1L << last)) != 0) {
+                result.add(c);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+            long childReach = (reach & descendants) | ((matched << 1) & ~(1L << steps.length));
+            if (childReach == 0) {
+                traversal.prune();
+            } else {
+                traversal.descend(childReach);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Step of a selector: a class test (cached per class) followed by attribute tests.
+     */
+    private static final class Step {
+        private final String type;
+        private final Map<Class<?>, Boolean> types = new ConcurrentHashMap<Class<?>, Boolean>();
+        private final List<Attribute> attributes = new ArrayList<Attribute>();
+
+        Step(String type) {
+            this.type = type;
+        }
+
+        boolean matches(Component c) {
+            if (type != null && !isOfType(c.getClass())) {
+                return false;
+            }
+            for (Attribute a : attributes) {
+                if (!a.matches(c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isOfType(Class<?> swing) {
+            Boolean result = types.get(swing);
+            if (result == null) {
+                result = false;
+                boolean qualified = type.indexOf('.') >= 0;
+                for (Class<?> c = swing; c != null && !result; c = c.getSuperclass()) {
+                    result = type.equals(qualified ? c.getName() : c.getSimpleName());
+                }
+                types.put(swing, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Attribute test of a step.
+     */
+    private static final class Attribute {
+        private final boolean byName;
+        private final char operator;
+        private final String value;
+
+        Attribute(boolean byName, char operator, String value) {
+            this.byName = byName;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        boolean matches(Component c) {
+            String actual = byName ? c.getName() : GooeyText.getText(c);
+            if (actual == null) {
+                return false;
+            }
+            switch (operator) {
+                case '^':
+                    return actual.startsWith(value);
+                case '$':
+                    return actual.endsWith(value);
+                case '*':
+                    return actual.contains(value);
+                default:
+                    return actual.equals(value);
+            }
+        }
+    }
+
+    /**
+     * Parser of selectors.
+     */
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        GooeySelector parse() {
+            List<Step> steps = new ArrayList<Step>();
+            long descendants = 0;
+            skipSpaces();
+            boolean child = consume('>');
+            while (true) {
+                skipSpaces();
+                if (steps.size() == Long.SIZE - 1) {
+                    throw error("too many steps");
+                }
+                if (!child) {
+                    descendants |= 1L << steps.size();
+                }
+                steps.add(parseStep());
+                int before = pos;
+                skipSpaces();
+                if (pos == text.length()) {
+                    break;
+                }
+                child = consume('>');
+                if (!child && before == pos) {
+                    throw error("expected whitespace or '>'");
+                }
+            }
+            // names are tested before displayed text, whose getters vary by component
+            for (Step step : steps) {
+                List<Attribute> byText = new ArrayList<Attribute>();
+                for (int i = step.attributes.size() - 1; i >= 0; i--) {
+                    if (!step.attributes.get(i).byName) {
+                        byText.add(0, step.attributes.remove(i));
+                    }
+                }
+                step.attributes.addAll(byText);
+            }
+            return new GooeySelector(text, steps, descendants);
+        }
+
+        private Step parseStep() {
+            String type = null;
+            if (consume('*')) {
+                type = null;
+            } else {
+                int start = pos;
+                while (pos < text.length() && (Character.isJavaIdentifierPart(text.charAt(pos)) ||
+                                               text.charAt(pos) == '.')) {
+                    pos++;
+                }
+                if (start != pos) {
+                    type = text.substring(start, pos);
+                } else if (pos >= text.length() || text.charAt(pos) != '[') {
+                    throw error("expected class name, '*' or '['");
+                }
+            }
+            Step step = new Step(type);
+            while (consume('[')) {
+                skipSpaces();
+                boolean byName;
+                if (text.startsWith("name", pos)) {
+                    byName = true;
+                    pos += 4;
+                } else if (text.startsWith("text", pos)) {
+                    byName = false;
+                    pos += 4;
+                } else {
+                    throw error("expected 'name' or 'text'");
+                }
+                skipSpaces();
+                char operator = '=';
+                if (pos < text.length() && "^$*".indexOf(text.charAt(pos)) >= 0) {
+                    operator = text.charAt(pos++);
+                }
+                if (!consume('=')) {
+                    throw error("expected '='");
+                }
+                skipSpaces();
+                String value = parseValue();
+                skipSpaces();
+                if (!consume(']')) {
+                    throw error("expected ']'");
+                }
+                step.attributes.add(new Attribute(byName, operator, value));
+            }
+            return step;
+        }
+
+        private String parseValue() {
+            if (pos < text.length() && (text.charAt(pos) == '"' || text.charAt(pos) == '\'')) {
+                char quote = text.charAt(pos++);
+                StringBuilder value = new StringBuilder();
+                while (pos < text.length() && text.charAt(pos) != quote) {
+                    char c = text.charAt(pos++);
+                    if (c == '\\' && pos < text.length()) {
+                        c = text.charAt(pos++);
+                    }
+                    value.append(c);
+                }
+                if (!consume(quote)) {
+                    throw error("unterminated string");
+                }
+                return value.toString();
+            }
+            int start = pos;
+            while (pos < text.length() && text.charAt(pos) != ']') {
+                pos++;
+            }
+            return text.substring(start, pos).trim();
+        }
+
+        private boolean consume(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid selector \"" + text + "\" at " + pos + ": " + message);
+        }
+    }
+}
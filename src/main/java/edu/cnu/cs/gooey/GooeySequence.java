@@ -0,0 +1,44 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import edu.cnu.cs.gooey.GooeyToolkitListener.EventCriteria;
+
+import java.awt.*;
+
+/**
+ * <p>Title: GooeySequence</p>
+ * <p>Description: Capture of all windows opened after <code>invoke</code> runs. Windows are recorded in the order
+ * they open and <code>handle</code> consumes them from a {@link GooeyStream} as they arrive, so applications
+ * displaying several windows (e.g., a frame followed by a dialog) are tested without launching them once per
+ * window.
+ * </p>
+ *
+ * @see Gooey#capture(GooeySequence)
+ */
+public abstract class GooeySequence extends GooeyInvocation {
+    private GooeyToolkitListener.EventCriteria criteria;
+
+    protected GooeySequence() {
+        criteria = windowOpened(Window.class);
+    }
+
+    public abstract void handle(GooeyStream windows);
+
+    @Override
+    public EventCriteria getEventCriteria() {
+        return criteria;
+    }
+}
@@ -0,0 +1,726 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import javax.swing.text.JTextComponent;
+import java.awt.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>Title: GooeySnapshot</p>
+ * <p>Description: Immutable copy of a component hierarchy. The class, name, displayed text, bounds and visibility
+ * of every component in the hierarchy are read in a single hop to the event dispatch thread, after which queries
+ * run on the calling thread against the copy. Queries neither read Swing state off the event dispatch thread nor
+ * observe components being added or changed while they search. Every node of the snapshot refers back to its live
+ * component. Nodes are numbered in breadth-first order, with the container the snapshot was taken of first, so the
+ * children of a node are numbered consecutively.
+ * </p>
+ * <p>The hierarchy is stored as parallel arrays indexed by node number: the index of each node's parent and first
+ * child, its number of children and depth, the id of its class in a table of the classes found, the ids of its name
+ * and text in a table of the strings found, and its bounds packed four ints per node. Large hierarchies are thus
+ * copied into a few arrays instead of an object per component, and queries scan primitive arrays comparing ids
+ * rather than objects. {@link Node} objects are views created on demand.
+ * </p>
+ * <p>Searches with matchers over the copied data (e.g., matching text with regular expressions) can be spread over
+ * several threads with {@link #getComponentsInParallel(GooeyCriteria)}: the nodes to evaluate are split into
+ * consecutive ranges evaluated by a shared pool of daemon threads, and the matches are merged in breadth-first
+ * order. Criteria reading live components are evaluated on the calling thread instead.
+ * </p>
+ *
+ * @see Gooey#snapshot(Container)
+ */
+public final class GooeySnapshot {
+    private static final int NONE = -1;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int MIN_RANGE = 256;
+    private static ExecutorService executor;
+
+    private final int size;
+    private final Component[] components;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] childCounts;
+    private final int[] depths;
+    private final int[] types;
+    private final int[] names;
+    private final int[] texts;
+    private final int[] bounds;
+    private final BitSet visible;
+    private final BitSet hiddenCards;
+    private final Class<?>[] typeTable;
+    private final String[] stringTable;
+    private final Map<String, Integer> stringIds;
+
+    private GooeySnapshot(Builder builder) {
+        size = builder.size;
+        components = builder.components;
+        parents = builder.parents;
+        firstChildren = builder.firstChildren;
+        childCounts = builder.childCounts;
+        depths = builder.depths;
+        types = builder.types;
+        names = builder.names;
+        texts = builder.texts;
+        bounds = builder.bounds;
+        visible = builder.visible;
+        hiddenCards = builder.hiddenCards;
+        typeTable = builder.typeList.toArray(new Class<?>[builder.typeList.size()]);
+        stringTable = builder.stringList.toArray(new String[builder.stringList.size()]);
+        stringIds = builder.stringIds;
+    }
+
+    /**
+     * Takes a snapshot of a container and the components nested in it. The snapshot is taken on the event dispatch
+     * thread, waiting for it if called from another thread.
+     *
+     * @param root container copied.
+     * @return snapshot of the container.
+     */
+    static GooeySnapshot take(final Container root) {
+        if (EventQueue.isDispatchThread()) {
+            return new GooeySnapshot(new Builder(root));
+        }
+        final GooeySnapshot[] snapshot = new GooeySnapshot[1];
+        try {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    snapshot[0] = new GooeySnapshot(new Builder(root));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while taking a snapshot", e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return snapshot[0];
+    }
+
+    /**
+     * Returns the node of the container the snapshot was taken of.
+     *
+     * @return root node.
+     */
+    public Node getRoot() {
+        return new Node(0);
+    }
+
+    /**
+     * Returns the number of nodes in the snapshot, including the root.
+     *
+     * @return number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns all nodes in breadth-first order, starting with the root. Nodes are created as they are requested.
+     *
+     * @return unmodifiable list of nodes.
+     */
+    public List<Node> getNodes() {
+        return new Nodes(0, size);
+    }
+
+    /**
+     * Returns the nodes (other than the root) accepted by the given criteria, in breadth-first order. To avoid
+     * creating a node per component evaluated, the same node is given to the criteria repeatedly and moved from
+     * component to component; criteria should not keep it.
+     *
+     * @param criteria criteria indicating an accepting node.
+     * @return list of nodes found.
+     */
+    public List<Node> find(Criteria criteria) {
+        List<Node> result = new ArrayList<Node>();
+        Node cursor = new Node(0);
+        for (int i = 1; i < size; i++) {
+            cursor.index = i;
+            if (criteria.isAccepted(cursor)) {
+                result.add(new Node(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first component of a class in the snapshot. If a name is provided (i.e., it's not null) then the
+     * component found will match both the class and name sought.
+     *
+     * @param swing class of component sought.
+     * @param name  name of the component sought. It's not used if null.
+     * @return component found.
+     * @throws AssertionError if no component with the given class and name is found.
+     */
+    public <T extends Component> T getComponent(Class<T> swing, String name) {
+        int i = next(1, accepted(swing), name == null ? null : names, stringId(name));
+        if (i == NONE) {
+            throw new AssertionError(
+                    "No \"" + swing.getName() + "\" component" + (name == null ? "" : " \'" + name + "\'") + " found");
+        }
+        return swing.cast(components[i]);
+    }
+
+    /**
+     * Returns all components of a class in the snapshot, in breadth-first order.
+     *
+     * @param swing class of components sought.
+     * @return list of components found.
+     */
+    public <T extends Component> List<T> getComponents(Class<T> swing) {
+        List<T> result = new ArrayList<T>();
+        boolean[] accepted = accepted(swing);
+        for (int i = next(1, accepted, null, NONE); i != NONE; i = next(i + 1, accepted, null, NONE)) {
+            result.add(swing.cast(components[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all components in the snapshot that match the given criteria, in breadth-first order. The criteria are
+     * evaluated on the live components, but if they are a {@link GooeyMatcher} requiring a class or a name, only
+     * the components whose copied class and name meet that requirement are evaluated.
+     *
+     * @param criteria criteria indicating an accepting component.
+     * @return list of components found.
+     */
+    public <T extends Component> List<T> getComponents(GooeyCriteria criteria) {
+        return getComponents(criteria, false);
+    }
+
+    /**
+     * Returns all components in the snapshot that match the given criteria, in breadth-first order, evaluating the
+     * criteria on several threads. Swing components are not thread safe, so only matchers by class, name and text
+     * (and their combinations) are evaluated in parallel, on the data copied by the snapshot; other criteria are
+     * evaluated on the live components on the calling thread, as with {@link #getComponents(GooeyCriteria)}.
+     *
+     * @param criteria criteria indicating an accepting component.
+     * @return list of components found.
+     */
+    public <T extends Component> List<T> getComponentsInParallel(GooeyCriteria criteria) {
+        return getComponents(criteria, true);
+    }
+
+    /**
+     * Returns all components in the snapshot that match the given criteria, in breadth-first order. Components are
+     * skipped as requested by the flags SEARCH_FLAT, SEARCH_VISIBLE and SKIP_HIDDEN_CARDS, judged by their state
+     * when the snapshot was taken.
+     *
+     * @param criteria criteria indicating an accepting component.
+     * @param parallel whether the criteria are evaluated on several threads.
+     * @param flags    (optional) flags for level search (nested, flat) and pruning (visible, displayed cards).
+     * @return list of components found.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Component> List<T> getComponents(final GooeyCriteria criteria, boolean parallel,
+                                                GooeyFlag... flags) {
+        final int[] candidates = candidates(criteria, flags);
+        final boolean[] matched = new boolean[candidates.length];
+        // only data copied by the snapshot is safe to read concurrently
+        boolean copied = criteria instanceof GooeyMatcher && ((GooeyMatcher) criteria).isCopied();
+        int ranges = parallel && copied && THREADS > 1 ? Math.min(THREADS * 4, candidates.length / MIN_RANGE) : 1;
+        if (ranges <= 1) {
+            evaluate(criteria, candidates, matched, 0, candidates.length);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(ranges);
+            for (int r = 0; r < ranges; r++) {
+                final int from = (int) ((long) candidates.length * r / ranges);
+                final int to = (int) ((long) candidates.length * (r + 1) / ranges);
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        evaluateCopies((GooeyMatcher) criteria, candidates, matched, from, to);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(tasks);
+        }
+        List<T> result = new ArrayList<T>();
+        for (int c = 0; c < candidates.length; c++) {
+            if (matched[c]) {
+                result.add((T) components[candidates[c]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the nodes (other than the root) to evaluate, in breadth-first order: those meeting the class and name
+     * required by a {@link GooeyMatcher} and not skipped as requested by the flags.
+     *
+     * @param criteria criteria indicating an accepting component.
+     * @param flags    flags for level search and pruning.
+     * @return numbers of the nodes to evaluate.
+     */
+    private int[] candidates(GooeyCriteria criteria, GooeyFlag... flags) {
+        Class<?> type = criteria instanceof GooeyMatcher ? ((GooeyMatcher) criteria).requiredType() : null;
+        String name = criteria instanceof GooeyMatcher ? ((GooeyMatcher) criteria).requiredName() : null;
+        boolean[] accepted = accepted(type == null ? Object.class : type);
+        int nameId = stringId(name);
+        int[] named = name == null ? null : names;
+        boolean flat = false;
+        boolean visibleOnly = false;
+        boolean skipHiddenCards = false;
+        for (GooeyFlag flag : flags) {
+            flat |= flag == GooeyFlag.SEARCH_FLAT;
+            visibleOnly |= flag == GooeyFlag.SEARCH_VISIBLE;
+            skipHiddenCards |= flag == GooeyFlag.SKIP_HIDDEN_CARDS;
+        }
+        BitSet skipped = null;
+        if (visibleOnly || skipHiddenCards) {
+            // a node is skipped along with its subtree; parents precede their children in breadth-first order
+            skipped = new BitSet(size);
+            for (int i = 1; i < size; i++) {
+                if (skipped.get(parents[i]) || (visibleOnly && !visible.get(i)) ||
+                    (skipHiddenCards && hiddenCards.get(i))) {
+                    skipped.set(i);
+                }
+            }
+        }
+        int[] candidates = new int[16];
+        int count = 0;
+        for (int i = next(1, accepted, named, nameId); i != NONE; i = next(i + 1, accepted, named, nameId)) {
+            if (flat && depths[i] > 1) {
+                break;
+            }
+            if (skipped == null || !skipped.get(i)) {
+                if (count == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, count * 2);
+                }
+                candidates[count++] = i;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private void evaluate(GooeyCriteria criteria, int[] candidates, boolean[] matched, int from, int to) {
+        for (int c = from; c < to; c++) {
+            matched[c] = criteria.isAccepted(components[candidates[c]]);
+        }
+    }
+
+    private void evaluateCopies(GooeyMatcher criteria, int[] candidates, boolean[] matched, int from, int to) {
+        for (int c = from; c < to; c++) {
+            matched[c] = criteria.isAccepted(this, candidates[c]);
+        }
+    }
+
+    /**
+     * Runs tasks in the shared pool of search threads, waiting for all of them. An exception thrown by a task is
+     * rethrown on the calling thread.
+     *
+     * @param tasks tasks to run.
+     */
+    private static void invokeAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executor().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                private int count;
+
+                @Override
+                public synchronized Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Gooey search " + ++count);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Returns the first component of a class in the snapshot displaying the given text.
+     *
+     * @param swing class of component sought.
+     * @param text  text displayed by the component.
+     * @return component found, or null if no component of the given class displays the text.
+     */
+    public <T extends Component> T getComponentByText(Class<T> swing, String text) {
+        int i = next(1, accepted(swing), texts, stringId(text));
+        return i == NONE ? null : swing.cast(components[i]);
+    }
+
+    Component component(int i) {
+        return components[i];
+    }
+
+    int parent(int i) {
+        return parents[i];
+    }
+
+    int depth(int i) {
+        return depths[i];
+    }
+
+    boolean visible(int i) {
+        return visible.get(i);
+    }
+
+    String name(int i) {
+        return names[i] == NONE ? null : stringTable[names[i]];
+    }
+
+    String text(int i) {
+        return texts[i] == NONE ? null : stringTable[texts[i]];
+    }
+
+    /**
+     * Returns a coordinate or dimension of a node's bounds.
+     *
+     * @param i node number.
+     * @param k 0 for x, 1 for y, 2 for width and 3 for height.
+     * @return coordinate or dimension.
+     */
+    int bound(int i, int k) {
+        return bounds[i * 4 + k];
+    }
+
+    /**
+     * Returns the first node at or after the given one whose class is accepted and (if ids are given) whose string
+     * id matches.
+     *
+     * @param from     first node evaluated.
+     * @param accepted whether each class in the type table is accepted.
+     * @param ids      string ids of the nodes (names or texts), or null if not compared.
+     * @param id       string id sought.
+     * @return node found, or NONE.
+     */
+    private int next(int from, boolean[] accepted, int[] ids, int id) {
+        if (ids != null && id == NONE) {
+            return NONE;
+        }
+        for (int i = from; i < size; i++) {
+            if (accepted[types[i]] && (ids == null || ids[i] == id)) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private boolean[] accepted(Class<?> swing) {
+        boolean[] accepted = new boolean[typeTable.length];
+        for (int t = 0; t < typeTable.length; t++) {
+            accepted[t] = swing.isAssignableFrom(typeTable[t]);
+        }
+        return accepted;
+    }
+
+    private int stringId(String s) {
+        Integer id = s == null ? null : stringIds.get(s);
+        return id == null ? NONE : id;
+    }
+
+    /**
+     * Criteria evaluated on the nodes of a snapshot.
+     */
+    public interface Criteria {
+        boolean isAccepted(Node node);
+    }
+
+    /**
+     * View of the state of a component when the snapshot was taken.
+     */
+    public final class Node {
+        private int index;
+
+        private Node(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Returns the number of the node in breadth-first order (the root is 0).
+         *
+         * @return node number.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the live component copied.
+         *
+         * @return component.
+         */
+        public Component getComponent() {
+            return components[index];
+        }
+
+        /**
+         * Returns the class of the component.
+         *
+         * @return class of the component.
+         */
+        public Class<?> getType() {
+            return typeTable[types[index]];
+        }
+
+        /**
+         * Returns the name of the component.
+         *
+         * @return name, or null if the component has no name.
+         */
+        public String getName() {
+            return names[index] == NONE ? null : stringTable[names[index]];
+        }
+
+        /**
+         * Returns the text displayed by the component.
+         *
+         * @return text, or null if the component is not a button or label.
+         */
+        public String getText() {
+            return texts[index] == NONE ? null : stringTable[texts[index]];
+        }
+
+        /**
+         * Returns the bounds of the component relative to its parent.
+         *
+         * @return copy of the bounds.
+         */
+        public Rectangle getBounds() {
+            int b = index * 4;
+            return new Rectangle(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3]);
+        }
+
+        /**
+         * Indicates whether the component was visible.
+         *
+         * @return true if visible.
+         */
+        public boolean isVisible() {
+            return visible.get(index);
+        }
+
+        /**
+         * Returns the node of the component's parent.
+         *
+         * @return parent node, or null for the root.
+         */
+        public Node getParent() {
+            return parents[index] == NONE ? null : new Node(parents[index]);
+        }
+
+        /**
+         * Returns the nodes of the component's children, in order.
+         *
+         * @return unmodifiable list of child nodes.
+         */
+        public List<Node> getChildren() {
+            return new Nodes(firstChildren[index], childCounts[index]);
+        }
+
+        /**
+         * Returns the depth of the component. The root has depth 0 and its components depth 1.
+         *
+         * @return depth.
+         */
+        public int getDepth() {
+            return depths[index];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node && ((Node) o).index == index && ((Node) o).snapshot() == GooeySnapshot.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            String name = getName();
+            String text = getText();
+            return getType().getSimpleName() + (name == null ? "" : " \'" + name + "\'") +
+                   (text == null ? "" : " \"" + text + "\"");
+        }
+
+        private GooeySnapshot snapshot() {
+            return GooeySnapshot.this;
+        }
+    }
+
+    /**
+     * List of consecutive nodes.
+     */
+    private class Nodes extends AbstractList<Node> {
+        private final int first;
+        private final int count;
+
+        Nodes(int first, int count) {
+            this.first = first;
+            this.count = count;
+        }
+
+        @Override
+        public Node get(int i) {
+            if (i < 0 || i >= count) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+            }
+            return new Node(first + i);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * Copies a hierarchy breadth first into growing arrays. Classes and strings are interned as they are found.
+     */
+    private static final class Builder {
+        private int size;
+        private Component[] components = new Component[64];
+        private int[] parents = new int[64];
+        private int[] firstChildren = new int[64];
+        private int[] childCounts = new int[64];
+        private int[] depths = new int[64];
+        private int[] types = new int[64];
+        private int[] names = new int[64];
+        private int[] texts = new int[64];
+        private int[] bounds = new int[64 * 4];
+        private final BitSet visible = new BitSet();
+        private final BitSet hiddenCards = new BitSet();
+        private final BitSet edited = new BitSet();
+        private final Map<Class<?>, Integer> typeIds = new HashMap<Class<?>, Integer>();
+        private final List<Class<?>> typeList = new ArrayList<Class<?>>();
+        private final Map<String, Integer> stringIds = new HashMap<String, Integer>();
+        private final List<String> stringList = new ArrayList<String>();
+
+        Builder(Container root) {
+            synchronized (root.getTreeLock()) {
+                add(root, NONE, 0);
+                for (int i = 0; i < size; i++) {
+                    if (components[i] instanceof Container) {
+                        Container parent = (Container) components[i];
+                        boolean cards = parent.getLayout() instanceof CardLayout;
+                        JTabbedPane tabs = parent instanceof JTabbedPane ? (JTabbedPane) parent : null;
+                        Component selected = tabs == null ? null : tabs.getSelectedComponent();
+                        int count = parent.getComponentCount();
+                        firstChildren[i] = size;
+                        childCounts[i] = count;
+                        for (int j = 0; j < count; j++) {
+                            Component c = parent.getComponent(j);
+                            if ((cards && !c.isVisible()) ||
+                                (tabs != null && c != selected && tabs.indexOfComponent(c) >= 0)) {
+                                hiddenCards.set(size);
+                            }
+                            add(c, i, depths[i] + 1);
+                        }
+                    }
+                }
+            }
+            // text components are read outside the tree lock: reading their document takes its lock, which
+            // editing threads hold while they take the tree lock (e.g., to revalidate)
+            for (int i = edited.nextSetBit(0); i >= 0; i = edited.nextSetBit(i + 1)) {
+                texts[i] = stringId(GooeyText.getText(components[i]));
+            }
+        }
+
+        private void add(Component c, int parent, int depth) {
+            if (size == components.length) {
+                int capacity = size * 2;
+                components = Arrays.copyOf(components, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                firstChildren = Arrays.copyOf(firstChildren, capacity);
+                childCounts = Arrays.copyOf(childCounts, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                types = Arrays.copyOf(types, capacity);
+                names = Arrays.copyOf(names, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+                bounds = Arrays.copyOf(bounds, capacity * 4);
+            }
+            int i = size++;
+            components[i] = c;
+            parents[i] = parent;
+            firstChildren[i] = size;
+            depths[i] = depth;
+            types[i] = typeId(c.getClass());
+            names[i] = stringId(c.getName());
+            if (c instanceof JTextComponent) {
+                texts[i] = NONE;
+                edited.set(i);
+            } else {
+                texts[i] = stringId(GooeyText.getText(c));
+            }
+            bounds[i * 4] = c.getX();
+            bounds[i * 4 + 1] = c.getY();
+            bounds[i * 4 + 2] = c.getWidth();
+            bounds[i * 4 + 3] = c.getHeight();
+            if (c.isVisible()) {
+                visible.set(i);
+            }
+        }
+
+        private int typeId(Class<?> type) {
+            Integer id = typeIds.get(type);
+            if (id == null) {
+                id = typeList.size();
+                typeIds.put(type, id);
+                typeList.add(type);
+            }
+            return id;
+        }
+
+        private int stringId(String s) {
+            if (s == null) {
+                return NONE;
+            }
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = stringList.size();
+                stringIds.put(s, id);
+                stringList.add(s);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>Title: GooeySpatialIndex</p>
+ * <p>Description: Index of the visible components of a container by their bounds relative to the container, for
+ * lookups by geometry such as the text field to the right of a label or the component at a point. The index is
+ * built from a snapshot of the container (refer to {@link Gooey#snapshot(Container)}) and reflects the layout at
+ * that moment; lookups after the layout changes require a new index. Bounds are bucketed in a uniform grid whose
+ * cells hold about one component each, so lookups examine the cells around the area of interest instead of every
+ * component. Components spanning many cells (e.g., panels filling the container) are kept apart and examined on
+ * every lookup rather than being copied into every cell they cover. Components with no width or height (e.g., a
+ * label with no text yet) are kept as points: they may be found to the right of a label but never contain a point.
+ * </p>
+ *
+ * @see Gooey#spatialIndex(Container)
+ */
+public final class GooeySpatialIndex {
+    /**
+     * Minimum width and height (in pixels) of a grid cell.
+     */
+    private static final int MIN_CELL = 16;
+    /**
+     * Number of cells beyond which a component is kept apart from the grid.
+     */
+    private static final int MAX_CELLS = 64;
+
+    private final int count;
+    private final Component[] components;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] widths;
+    private final int[] heights;
+    private final int[] depths;
+    private final Map<Component, Integer> entries = new IdentityHashMap<Component, Integer>();
+    private final Map<String, Integer> labels = new HashMap<String, Integer>();
+    private final int cell;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] cellSizes;
+    private int[] large = new int[4];
+    private int largeCount;
+
+    GooeySpatialIndex(GooeySnapshot snapshot) {
+        int n = snapshot.size();
+        components = new Component[n];
+        xs = new int[n];
+        ys = new int[n];
+        widths = new int[n];
+        heights = new int[n];
+        depths = new int[n];
+        int[] absoluteX = new int[n];
+        int[] absoluteY = new int[n];
+        boolean[] shown = new boolean[n];
+        shown[0] = true;
+        int found = 0;
+        // parents precede their children, so their offsets and visibility are known when a child is reached
+        for (int i = 1; i < n; i++) {
+            int parent = snapshot.parent(i);
+            absoluteX[i] = (parent == 0 ? 0 : absoluteX[parent]) + snapshot.bound(i, 0);
+            absoluteY[i] = (parent == 0 ? 0 : absoluteY[parent]) + snapshot.bound(i, 1);
+            shown[i] = shown[parent] && snapshot.visible(i);
+            if (shown[i] && snapshot.bound(i, 2) >= 0 && snapshot.bound(i, 3) >= 0) {
+                components[found] = snapshot.component(i);
+                xs[found] = absoluteX[i];
+                ys[found] = absoluteY[i];
+                widths[found] = snapshot.bound(i, 2);
+                heights[found] = snapshot.bound(i, 3);
+                depths[found] = snapshot.depth(i);
+                entries.put(components[found], found);
+                String text = snapshot.text(i);
+                if (text != null && components[found] instanceof JLabel && !labels.containsKey(text)) {
+                    labels.put(text, found);
+                }
+                found++;
+            }
+        }
+        count = found;
+        int width = Math.max(1, snapshot.getRoot().getBounds().width);
+        int height = Math.max(1, snapshot.getRoot().getBounds().height);
+        cell = Math.max(MIN_CELL, (int) Math.sqrt((double) width * height / Math.max(1, count)));
+        columns = (width + cell - 1) / cell;
+        rows = (height + cell - 1) / cell;
+        cells = new int[columns * rows][];
+        cellSizes = new int[columns * rows];
+        for (int e = 0; e < count; e++) {
+            // components (partly) outside the container are clipped to the grid
+            int c0 = Math.max(0, column(xs[e]));
+            int c1 = Math.min(columns - 1, column(xs[e] + Math.max(1, widths[e]) - 1));
+            int r0 = Math.max(0, row(ys[e]));
+            int r1 = Math.min(rows - 1, row(ys[e] + Math.max(1, heights[e]) - 1));
+            if (c0 > c1 || r0 > r1) {
+                continue;
+            }
+            if ((c1 - c0 + 1) * (r1 - r0 + 1) > MAX_CELLS) {
+                if (largeCount == large.length) {
+                    large = Arrays.copyOf(large, largeCount * 2);
+                }
+                large[largeCount++] = e;
+            } else {
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) {
+                        add(r * columns + c, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the component of a class nearest to the right of a label. If the label is associated with a component
+     * of the class (refer to <code>JLabel.setLabelFor</code>) that component is returned. Otherwise, among the
+     * components of the class whose left edge is right of the label's center and that overlap the label vertically,
+     * the one with the smallest horizontal gap is returned (ties are broken by the distance between vertical
+     * centers).
+     *
+     * @param label label to the left of the component sought.
+     * @param swing class of component sought.
+     * @return component found.
+     * @throws AssertionError if the label is not in the index or no such component is found.
+     */
+    public <T extends Component> T getComponentRightOf(JLabel label, Class<T> swing) {
+        if (swing.isInstance(label.getLabelFor())) {
+            return swing.cast(label.getLabelFor());
+        }
+        Integer entry = entries.get(label);
+        if (entry == null) {
+            throw new AssertionError("No label \"" + label.getText() + "\" displayed");
+        }
+        return rightOf(entry, swing, "label \"" + label.getText() + "\"");
+    }
+
+    /**
+     * Returns the component of a class nearest to the right of the label displaying the given text. Refer to
+     * {@link #getComponentRightOf(JLabel, Class)}.
+     *
+     * @param text  text of the label to the left of the component sought.
+     * @param swing class of component sought.
+     * @return component found.
+     * @throws AssertionError if no label with the given text or no such component is found.
+     */
+    public <T extends Component> T getComponentRightOf(String text, Class<T> swing) {
+        Integer entry = labels.get(text);
+        if (entry == null) {
+            throw new AssertionError("No label \"" + text + "\" displayed");
+        }
+        JLabel label = (JLabel) components[entry];
+        if (swing.isInstance(label.getLabelFor())) {
+            return swing.cast(label.getLabelFor());
+        }
+        return rightOf(entry, swing, "label \"" + text + "\"");
+    }
+
+    /**
+     * Returns the innermost component at a point. If several components at the same depth contain the point, the
+     * one added first to their container (i.e., the one painted on top) is returned.
+     *
+     * @param x horizontal coordinate relative to the indexed container.
+     * @param y vertical coordinate relative to the indexed container.
+     * @return component found.
+     * @throws AssertionError if no component contains the point.
+     */
+    public Component getComponentAt(int x, int y) {
+        int best = -1;
+        if (x >= 0 && y >= 0 && column(x) < columns && row(y) < rows) {
+            int c = row(y) * columns + column(x);
+            for (int k = 0; k < cellSizes[c]; k++) {
+                best = innermost(best, cells[c][k], x, y);
+            }
+        }
+        for (int k = 0; k < largeCount; k++) {
+            best = innermost(best, large[k], x, y);
+        }
+        if (best < 0) {
+            throw new AssertionError("No component at (" + x + ", " + y + ") found");
+        }
+        return components[best];
+    }
+
+    /**
+     * Returns the bounds of a component relative to the indexed container.
+     *
+     * @param c component indexed.
+     * @return bounds of the component, or null if the component is not in the index.
+     */
+    public Rectangle getBounds(Component c) {
+        Integer e = entries.get(c);
+        return e == null ? null : new Rectangle(xs[e], ys[e], widths[e], heights[e]);
+    }
+
+    private int innermost(int best, int e, int x, int y) {
+        boolean contains = x >= xs[e] && x < xs[e] + widths[e] && y >= ys[e] && y < ys[e] + heights[e];
+        if (!contains || (best >= 0 && (depths[e] < depths[best] || (depths[e] == depths[best] && e > best)))) {
+            return best;
+        }
+        return e;
+    }
+
+    /**
+     * Scans the grid columns to the right of a label, within the rows it spans, until the columns are farther than
+     * the best candidate found.
+     */
+    private <T extends Component> T rightOf(int label, Class<T> swing, String description) {
+        int right = xs[label] + widths[label];
+        int center = xs[label] + widths[label] / 2;
+        int top = ys[label];
+        int bottom = ys[label] + heights[label];
+        int[] best = {-1, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        for (int k = 0; k < largeCount; k++) {
+            consider(best, large[k], swing, right, center, top, bottom);
+        }
+        int r0 = Math.max(0, row(top));
+        int r1 = Math.min(rows - 1, row(bottom - 1));
+        for (int c = Math.max(0, column(center)); c < columns; c++) {
+            if (best[0] >= 0 && c * cell - right > best[1]) {
+                break;
+            }
+            for (int r = r0; r <= r1; r++) {
+                int i = r * columns + c;
+                for (int k = 0; k < cellSizes[i]; k++) {
+                    consider(best, cells[i][k], swing, right, center, top, bottom);
+                }
+            }
+        }
+        if (best[0] < 0) {
+            throw new AssertionError("No \"" + swing.getName() + "\" component right of " + description + " found");
+        }
+        return swing.cast(components[best[0]]);
+    }
+
+    private void consider(int[] best, int e, Class<?> swing, int right, int center, int top, int bottom) {
+        if (!swing.isInstance(components[e]) || xs[e] <= center || ys[e] >= bottom ||
+            ys[e] + Math.max(1, heights[e]) <= top) {
+            return;
+        }
+        int gap = Math.max(0, xs[e] - right);
+        int offset = Math.abs((ys[e] + heights[e] / 2) - (top + bottom) / 2);
+        if (gap < best[1] || (gap == best[1] && offset < best[2])) {
+            best[0] = e;
+            best[1] = gap;
+            best[2] = offset;
+        }
+    }
+
+    private int column(int x) {
+        return x < 0 ? -1 : x / cell;
+    }
+
+    private int row(int y) {
+        return y < 0 ? -1 : y / cell;
+    }
+
+    private void add(int c, int e) {
+        if (cells[c] == null) {
+            cells[c] = new int[2];
+        } else if (cellSizes[c] == cells[c].length) {
+            cells[c] = Arrays.copyOf(cells[c], cellSizes[c] * 2);
+        }
+        cells[c][cellSizes[c]++] = e;
+    }
+}
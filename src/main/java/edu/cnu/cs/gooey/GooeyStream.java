@@ -0,0 +1,66 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+
+/**
+ * <p>Title: GooeyStream</p>
+ * <p>Description: Ordered stream of the windows opened during a {@link GooeySequence} capture. Each call to
+ * <code>next</code> returns the following window opened, waiting for it (within a timeout period) if it has not
+ * opened yet.
+ * </p>
+ */
+public class GooeyStream {
+    private final String message;
+    private final long timeout;
+    private final GooeyToolkitListener.Subscription subscription;
+
+    GooeyStream(String message, long timeout, GooeyToolkitListener.Subscription subscription) {
+        this.message = message;
+        this.timeout = timeout;
+        this.subscription = subscription;
+    }
+
+    /**
+     * Returns the next window opened.
+     *
+     * @return window opened.
+     * @throws AssertionError if no window is displayed within the timeout.
+     */
+    public Window next() {
+        Window window = (Window) subscription.next(timeout);
+        if (window == null) {
+            throw new AssertionError(message);
+        }
+        return window;
+    }
+
+    /**
+     * Returns the next window opened, which must be of the given class.
+     *
+     * @param swing class of the window expected.
+     * @return window opened.
+     * @throws AssertionError if no window is displayed within the timeout or if it is not of the given class.
+     */
+    public <W extends Window> W next(Class<W> swing) {
+        Window window = next();
+        if (!swing.isInstance(window)) {
+            throw new AssertionError("Expected \"" + swing.getName() + "\" but \"" + window.getClass().getName() +
+                                     "\" displayed");
+        }
+        return swing.cast(window);
+    }
+}
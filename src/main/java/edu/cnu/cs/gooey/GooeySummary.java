@@ -0,0 +1,215 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.awt.*;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Title: GooeySummary</p>
+ * <p>Description: Bloom filters summarizing the types and names of the components nested in containers. Summaries
+ * are enabled per hierarchy with {@link Gooey#summarize(Container)}, computed lazily the first time a search enters
+ * a container, and discarded (for the container and its ancestors) when components are added, removed or renamed.
+ * A search for components of a type and/or name skips containers whose summary shows that none of their nested
+ * components can match. Summaries have false positives (a container may be entered needlessly) but no false
+ * negatives.
+ * </p>
+ */
+final class GooeySummary {
+    private static final int WORDS = 4;
+    private static final Map<Container, Boolean> roots = new WeakHashMap<Container, Boolean>();
+    private static final Map<Container, long[]> summaries = new WeakHashMap<Container, long[]>();
+    private static final Map<Class<?>, long[]> typeBits = new ConcurrentHashMap<Class<?>, long[]>();
+    private static final Listener listener = new Listener();
+
+    private final long[] required;
+
+    private GooeySummary(long[] required) {
+        this.required = required;
+    }
+
+    /**
+     * Enables summaries for the components nested in a container.
+     *
+     * @param root container whose nested components are summarized.
+     */
+    static void enable(Container root) {
+        synchronized (summaries) {
+            roots.put(root, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Returns a filter of the containers that may hold components accepted by a criteria.
+     *
+     * @param container container searched.
+     * @param criteria  criteria of the search.
+     * @return filter of containers, or null if summaries are not enabled for the container or the criteria requires
+     * neither a type nor a name.
+     */
+    static GooeySummary filter(Container container, GooeyCriteria criteria) {
+        if (!(criteria instanceof GooeyMatcher) || !isEnabled(container)) {
+            return null;
+        }
+        Class<?> type = ((GooeyMatcher) criteria).requiredType();
+        String name = ((GooeyMatcher) criteria).requiredName();
+        if (type == null && name == null) {
+            return null;
+        }
+        long[] required = new long[WORDS];
+        if (type != null) {
+            set(required, type.hashCode());
+        }
+        if (name != null) {
+            set(required, ~name.hashCode());
+        }
+        return new GooeySummary(required);
+    }
+
+    private static boolean isEnabled(Container container) {
+        synchronized (summaries) {
+            if (roots.isEmpty()) {
+                return false;
+            }
+            for (Container c = container; c != null; c = c.getParent()) {
+                if (roots.containsKey(c)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Indicates whether a container may hold a nested component accepted by the criteria of this filter.
+     *
+     * @param container container evaluated.
+     * @return false if no component nested in the container is accepted.
+     */
+    boolean mayContain(Container container) {
+        // the tree lock is taken before the summaries lock, as container listeners are called holding the tree lock
+        synchronized (container.getTreeLock()) {
+            synchronized (summaries) {
+                long[] bits = summarize(container);
+                for (int i = 0; i < WORDS; i++) {
+                    if ((bits[i] & required[i]) != required[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    private static long[] summarize(Container container) {
+        long[] bits = summaries.get(container);
+        if (bits == null) {
+            bits = new long[WORDS];
+            if (!Arrays.asList(container.getContainerListeners()).contains(listener)) {
+                container.addContainerListener(listener);
+            }
+            int count = container.getComponentCount();
+            for (int i = 0; i < count; i++) {
+                Component c = container.getComponent(i);
+                if (!Arrays.asList(c.getPropertyChangeListeners("name")).contains(listener)) {
+                    c.addPropertyChangeListener("name", listener);
+                }
+                or(bits, getTypeBits(c.getClass()));
+                if (c.getName() != null) {
+                    set(bits, ~c.getName().hashCode());
+                }
+                if (c instanceof Container) {
+                    or(bits, summarize((Container) c));
+                }
+            }
+            summaries.put(container, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the bits of a class, its superclasses and the interfaces they implement.
+     */
+    private static long[] getTypeBits(Class<?> swing) {
+        long[] bits = typeBits.get(swing);
+        if (bits == null) {
+            bits = new long[WORDS];
+            set(bits, swing.hashCode());
+            if (swing.getSuperclass() != null) {
+                or(bits, getTypeBits(swing.getSuperclass()));
+            }
+            for (Class<?> i : swing.getInterfaces()) {
+                or(bits, getTypeBits(i));
+            }
+            typeBits.put(swing, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Sets the 3 bits of a key.
+     */
+    private static void set(long[] bits, int hash) {
+        int h = hash * 0x9E3779B9;
+        for (int k = 0; k < 3; k++) {
+            int bit = (h >>> (8 * k)) & (WORDS * Long.SIZE - 1);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static void or(long[] bits, long[] other) {
+        for (int i = 0; i < WORDS; i++) {
+            bits[i] |= other[i];
+        }
+    }
+
+    /**
+     * Discards the summaries of a container and its ancestors.
+     */
+    private static void invalidate(Container container) {
+        synchronized (summaries) {
+            for (Container c = container; c != null; c = c.getParent()) {
+                summaries.remove(c);
+            }
+        }
+    }
+
+    /**
+     * Listener discarding summaries when components are added, removed or renamed.
+     */
+    private static class Listener implements ContainerListener, PropertyChangeListener {
+        @Override
+        public void componentAdded(ContainerEvent e) {
+            invalidate(e.getContainer());
+        }
+
+        @Override
+        public void componentRemoved(ContainerEvent e) {
+            invalidate(e.getContainer());
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            invalidate(((Component) e.getSource()).getParent());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Title: GooeyTabIndex</p>
+ * <p>Description: Index of the tabs of a tabbed pane by title, by tool tip and by name of the tab's content. The
+ * index is built the first time it is needed and is stored with the tabbed pane, so it lasts as long as the pane.
+ * It is invalidated when tabs are added or removed or their titles change. Tool tips may change without notice, so
+ * every tab found is checked against the pane and the index is rebuilt (once) before a lookup fails or when the
+ * tab found no longer matches. When several tabs match, the first one is indexed.
+ * </p>
+ */
+final class GooeyTabIndex {
+    /**
+     * Kind of key tabs are looked up by.
+     */
+    enum Key {
+        TITLE, TOOLTIP, NAME
+    }
+
+    private final JTabbedPane tabPane;
+    private final Map<String, Integer> byTitle = new HashMap<String, Integer>();
+    private final Map<String, Integer> byToolTip = new HashMap<String, Integer>();
+    private final Map<String, Integer> byName = new HashMap<String, Integer>();
+    private volatile boolean stale = true;
+
+    private GooeyTabIndex(JTabbedPane tabPane) {
+        this.tabPane = tabPane;
+        Listener listener = new Listener();
+        tabPane.addContainerListener(listener);
+        tabPane.addPropertyChangeListener("indexForTitle", listener);
+    }
+
+    /**
+     * Returns the index of a tabbed pane, creating it if needed.
+     *
+     * @param tabPane tabbed pane indexed.
+     * @return index of the tabbed pane.
+     */
+    static GooeyTabIndex of(JTabbedPane tabPane) {
+        synchronized (tabPane) {
+            GooeyTabIndex index = (GooeyTabIndex) tabPane.getClientProperty(GooeyTabIndex.class);
+            if (index == null) {
+                index = new GooeyTabIndex(tabPane);
+                tabPane.putClientProperty(GooeyTabIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns the position of the tab with the given key.
+     *
+     * @param key   kind of key.
+     * @param value title, tool tip or name of the tab's content sought.
+     * @return position of the tab, or -1 if none.
+     */
+    int indexOf(Key key, String value) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Integer i;
+            synchronized (this) {
+                if (stale || attempt > 0) {
+                    rebuild();
+                }
+                i = map(key).get(value);
+            }
+            if (i != null && i < tabPane.getTabCount() && value.equals(keyOf(key, i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Map<String, Integer> map(Key key) {
+        switch (key) {
+            case TOOLTIP:
+                return byToolTip;
+            case NAME:
+                return byName;
+            default:
+                return byTitle;
+        }
+    }
+
+    private String keyOf(Key key, int i) {
+        switch (key) {
+            case TOOLTIP:
+                return tabPane.getToolTipTextAt(i);
+            case NAME:
+                Component content = tabPane.getComponentAt(i);
+                return content == null ? null : content.getName();
+            default:
+                return tabPane.getTitleAt(i);
+        }
+    }
+
+    private void rebuild() {
+        stale = false;
+        byTitle.clear();
+        byToolTip.clear();
+        byName.clear();
+        for (int i = tabPane.getTabCount() - 1; i >= 0; i--) {
+            for (Key key : Key.values()) {
+                String value = keyOf(key, i);
+                if (value != null) {
+                    map(key).put(value, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Listener invalidating the index.
+     */
+    private class Listener implements ContainerListener, PropertyChangeListener {
+        @Override
+        public void componentAdded(ContainerEvent e) {
+            stale = true;
+        }
+
+        @Override
+        public void componentRemoved(ContainerEvent e) {
+            stale = true;
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            stale = true;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import javax.swing.text.JTextComponent;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Title: GooeyText</p>
+ * <p>Description: Library of text comparisons used to find buttons, labels and text components by the text they
+ * display: exact, prefix, regular expression, normalized and approximate (by edit distance). Normalized and
+ * approximate comparisons reduce texts to plain text (HTML tags removed, entities decoded), remove mnemonic markers
+ * (<code>&amp;</code>, with <code>&amp;&amp;</code> standing for an ampersand), collapse whitespace and ignore case.
+ * The latest compiled regular expressions are cached by expression, and the normalized text of each component is
+ * cached until its text changes, so repeated searches neither recompile patterns nor normalize texts per component
+ * visited.
+ * </p>
+ *
+ * @see Gooey#getLabel(Container, GooeyText)
+ * @see Gooey#getButton(Container, GooeyText)
+ * @see GooeyMatcher#byText(GooeyText)
+ */
+public abstract class GooeyText {
+    /**
+     * Number of compiled regular expressions cached.
+     */
+    private static final int PATTERNS = 256;
+    private static final Map<String, Pattern> patterns = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            return size() > PATTERNS;
+        }
+    };
+    private static final Map<Component, String[]> normalized = new WeakHashMap<Component, String[]>();
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    GooeyText() {
+    }
+
+    /**
+     * Returns a comparison accepting texts equal to the given one. A null text accepts components that display no
+     * text (i.e., that are not buttons, labels or text components, or whose text is null).
+     *
+     * @param text text accepted (or null).
+     * @return exact comparison.
+     */
+    public static GooeyText exact(String text) {
+        return new Exact(text);
+    }
+
+    /**
+     * Returns a comparison accepting texts starting with the given prefix.
+     *
+     * @param prefix prefix of texts accepted.
+     * @return prefix comparison.
+     */
+    public static GooeyText prefix(String prefix) {
+        return new Prefix(prefix);
+    }
+
+    /**
+     * Returns a comparison accepting texts entirely matched by a regular expression (e.g., <code>Save.*</code>).
+     *
+     * @param regex regular expression matching texts accepted.
+     * @return regular expression comparison.
+     * @throws java.util.regex.PatternSyntaxException if the expression is malformed.
+     */
+    public static GooeyText regex(String regex) {
+        return new Regex(regex);
+    }
+
+    /**
+     * Returns a comparison accepting texts that, once normalized, equal the given text normalized. For example,
+     * <code>&lt;html&gt;&lt;b&gt;Save &amp;As...&lt;/b&gt;&lt;/html&gt;</code> and <code>save as...</code> are
+     * equal once normalized.
+     *
+     * @param text text accepted.
+     * @return normalized comparison.
+     */
+    public static GooeyText normalized(String text) {
+        return new Fuzzy(text, 0);
+    }
+
+    /**
+     * Returns a comparison accepting texts that, once normalized, differ from the given text normalized by at most
+     * the given number of characters inserted, removed or replaced.
+     *
+     * @param text     text accepted.
+     * @param distance maximum edit distance of texts accepted.
+     * @return approximate comparison.
+     * @throws IllegalArgumentException if the distance is negative.
+     */
+    public static GooeyText fuzzy(String text, int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Negative distance: " + distance);
+        }
+        return new Fuzzy(text, distance);
+    }
+
+    /**
+     * Indicates whether a text is accepted.
+     *
+     * @param text text evaluated.
+     * @return true if the text is accepted.
+     */
+    public abstract boolean matches(String text);
+
+    /**
+     * Indicates whether the text displayed by a component is accepted.
+     *
+     * @param c component evaluated.
+     * @return true if the component displays a text accepted.
+     */
+    boolean matches(Component c) {
+        return matchesText(getText(c));
+    }
+
+    /**
+     * Indicates whether a text, possibly null (i.e., no text displayed), is accepted.
+     *
+     * @param text text evaluated (or null).
+     * @return true if the text is accepted.
+     */
+    boolean matchesText(String text) {
+        return text != null && matches(text);
+    }
+
+    /**
+     * Returns the relative cost of this comparison, in the units of {@link GooeyMatcher}.
+     *
+     * @return cost of this comparison.
+     */
+    abstract int cost();
+
+    /**
+     * Returns the text displayed by a component.
+     *
+     * @param c component evaluated.
+     * @return text displayed, or null if the component is not a button, label or text component.
+     */
+    static String getText(Component c) {
+        if (c instanceof AbstractButton) {
+            return ((AbstractButton) c).getText();
+        }
+        if (c instanceof JLabel) {
+            return ((JLabel) c).getText();
+        }
+        if (c instanceof JTextComponent) {
+            return ((JTextComponent) c).getText();
+        }
+        return null;
+    }
+
+    /**
+     * Reduces a text to plain text: HTML tags are removed and common entities decoded (if the text is HTML, i.e.,
+     * starts with <code>&lt;html&gt;</code>), and whitespace is collapsed and trimmed.
+     *
+     * @param text text to reduce.
+     * @return plain text.
+     */
+    static String toPlainText(String text) {
+        return collapse(decode(text));
+    }
+
+    private static String decode(String text) {
+        if (text.regionMatches(true, 0, "<html>", 0, 6)) {
+            return TAGS.matcher(text).replaceAll(" ").replace("&nbsp;", " ").replace("&lt;", "<")
+                       .replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+        }
+        return text;
+    }
+
+    private static String collapse(String text) {
+        return SPACES.matcher(text).replaceAll(" ").trim();
+    }
+
+    /**
+     * Normalizes a text: it's reduced to plain text, mnemonic markers are removed and it's converted to lower case.
+     * Whitespace is collapsed once markers are removed, so <code>Save &amp; Exit</code> normalizes to
+     * <code>save exit</code>.
+     *
+     * @param text text to normalize.
+     * @return normalized text.
+     */
+    static String normalize(String text) {
+        String plain = decode(text);
+        if (plain.indexOf('&') >= 0) {
+            StringBuilder unmarked = new StringBuilder(plain.length());
+            for (int i = 0; i < plain.length(); i++) {
+                char ch = plain.charAt(i);
+                if (ch != '&') {
+                    unmarked.append(ch);
+                } else if (i + 1 < plain.length() && plain.charAt(i + 1) == '&') {
+                    unmarked.append(ch);
+                    i++;
+                }
+            }
+            plain = unmarked.toString();
+        }
+        return collapse(plain).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the normalized text of a component, normalizing it only if it changed since last requested.
+     *
+     * @param c    component whose text is normalized.
+     * @param text text displayed by the component.
+     * @return normalized text.
+     */
+    private static String normalizeCached(Component c, String text) {
+        synchronized (normalized) {
+            String[] cached = normalized.get(c);
+            if (cached != null && cached[0].equals(text)) {
+                return cached[1];
+            }
+        }
+        String result = normalize(text);
+        synchronized (normalized) {
+            normalized.put(c, new String[]{text, result});
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of characters inserted, removed or replaced to turn one text into another, if it does not
+     * exceed a maximum. Only the diagonal band of the distance matrix within the maximum is computed.
+     *
+     * @param a   first text.
+     * @param b   second text.
+     * @param max maximum distance of interest.
+     * @return edit distance, or max + 1 if it exceeds the maximum.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = i;
+            if (from > 1) {
+                current[from - 1] = max + 1;
+            }
+            int best = from == 1 ? current[0] : max + 1;
+            for (int j = from; j <= to; j++) {
+                int replace = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                int remove = previous[j] + 1;
+                int insert = current[j - 1] + 1;
+                current[j] = Math.min(replace, Math.min(remove, insert));
+                best = Math.min(best, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = max + 1;
+            }
+            if (best > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static final class Exact extends GooeyText {
+        private final String text;
+
+        Exact(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return this.text == null ? text == null : this.text.equals(text);
+        }
+
+        @Override
+        boolean matchesText(String text) {
+            return matches(text);
+        }
+
+        @Override
+        int cost() {
+            return 3;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Exact && (text == null ? ((Exact) o).text == null : text.equals(((Exact) o).text));
+        }
+
+        @Override
+        public int hashCode() {
+            return text == null ? 0 : text.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(text);
+        }
+    }
+
+    private static final class Prefix extends GooeyText {
+        private final String prefix;
+
+        Prefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return text.startsWith(prefix);
+        }
+
+        @Override
+        int cost() {
+            return 3;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Prefix && ((Prefix) o).prefix.equals(prefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * prefix.hashCode() + 1;
+        }
+
+        @Override
+        public String toString() {
+            return prefix + "*";
+        }
+    }
+
+    private static final class Regex extends GooeyText {
+        private final Pattern pattern;
+
+        Regex(String regex) {
+            Pattern compiled;
+            synchronized (patterns) {
+                compiled = patterns.get(regex);
+            }
+            if (compiled == null) {
+                compiled = Pattern.compile(regex);
+                synchronized (patterns) {
+                    patterns.put(regex, compiled);
+                }
+            }
+            this.pattern = compiled;
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return pattern.matcher(text).matches();
+        }
+
+        @Override
+        int cost() {
+            return 6;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Regex && ((Regex) o).pattern.pattern().equals(pattern.pattern());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * pattern.pattern().hashCode() + 2;
+        }
+
+        @Override
+        public String toString() {
+            return "/" + pattern.pattern() + "/";
+        }
+    }
+
+    private static final class Fuzzy extends GooeyText {
+        private final String text;
+        private final String normal;
+        private final int distance;
+
+        Fuzzy(String text, int distance) {
+            this.text = text;
+            this.normal = normalize(text);
+            this.distance = distance;
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return accepts(normalize(text));
+        }
+
+        @Override
+        boolean matches(Component c) {
+            String text = getText(c);
+            return text != null && accepts(normalizeCached(c, text));
+        }
+
+        private boolean accepts(String candidate) {
+            return distance == 0 ? normal.equals(candidate) : distance(normal, candidate, distance) <= distance;
+        }
+
+        @Override
+        int cost() {
+            return distance == 0 ? 4 : 8;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Fuzzy && ((Fuzzy) o).normal.equals(normal) && ((Fuzzy) o).distance == distance;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * normal.hashCode() + distance;
+        }
+
+        @Override
+        public String toString() {
+            return "~" + text + (distance == 0 ? "" : "~" + distance);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Title: GooeyTimeout</p>
+ * <p>Description: Timeouts used while waiting for windows to be displayed. The default timeout is read from the
+ * system property <code>gooey.timeout</code> (in milliseconds) and falls back to
+ * {@link GooeyToolkitListener#TIMEOUT}. Adaptive timeouts are enabled with the system property
+ * <code>gooey.timeout.adaptive</code>. When enabled, the time each capture (identified by its class) takes to see
+ * its window is recorded, and later captures wait for a multiple (system property <code>gooey.timeout.factor</code>,
+ * 4 by default) of the 95th percentile of those times instead of the full timeout. Captures with too few recorded
+ * times of their own (e.g., each new anonymous class, or captures whose window never displays) use the times recorded
+ * for all captures instead. Captures whose adapted deadline would exceed their timeout wait for the full timeout, as
+ * do all captures until enough times are recorded.
+ * Captures expecting no window end once the event queue is idle and a grace period (system property
+ * <code>gooey.grace</code>, 50 milliseconds by default) elapses without windows being displayed.
+ * </p>
+ */
+public class GooeyTimeout {
+    /**
+     * Number of window-open times kept for each capture.
+     */
+    private static final int SAMPLES = 32;
+    /**
+     * Number of window-open times needed before a capture's deadline is adapted.
+     */
+    private static final int MIN_SAMPLES = 3;
+    /**
+     * Lower bound (in milliseconds) for an adapted deadline.
+     */
+    private static final long MIN_DEADLINE = 250;
+
+    private static volatile long timeout = Long.getLong("gooey.timeout", GooeyToolkitListener.TIMEOUT);
+    private static volatile boolean adaptive = Boolean.getBoolean("gooey.timeout.adaptive");
+    private static volatile int factor = Integer.getInteger("gooey.timeout.factor", 4);
+    private static volatile long grace = Long.getLong("gooey.grace", 50);
+    private static final Map<Object, Latency> latencies = new HashMap<Object, Latency>();
+    private static final Latency all = new Latency();
+
+    /**
+     * Private default (and only) constructor. No instance of GooeyTimeout can be created.
+     */
+    private GooeyTimeout() {
+    }
+
+    /**
+     * Returns the timeout (in milliseconds) used by captures that do not specify one.
+     *
+     * @return default timeout.
+     */
+    public static long getDefault() {
+        return timeout;
+    }
+
+    /**
+     * Sets the timeout (in milliseconds) used by captures that do not specify one.
+     *
+     * @param millis default timeout.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    public static void setDefault(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + millis);
+        }
+        timeout = millis;
+    }
+
+    /**
+     * Returns the time (in milliseconds) captures expecting no window wait after the event queue becomes idle.
+     *
+     * @return grace period.
+     */
+    public static long getGrace() {
+        return grace;
+    }
+
+    /**
+     * Sets the time (in milliseconds) captures expecting no window wait after the event queue becomes idle.
+     *
+     * @param millis grace period.
+     * @throws IllegalArgumentException if the grace period is negative.
+     */
+    public static void setGrace(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Grace period must not be negative: " + millis);
+        }
+        grace = millis;
+    }
+
+    /**
+     * Indicates whether deadlines are adapted to the window-open times recorded for each capture.
+     *
+     * @return true if adaptive deadlines are enabled.
+     */
+    public static boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Enables or disables adaptive deadlines. Recorded times are kept either way.
+     *
+     * @param enabled whether adaptive deadlines are enabled.
+     */
+    public static void setAdaptive(boolean enabled) {
+        adaptive = enabled;
+    }
+
+    /**
+     * Sets the multiple of the 95th percentile of recorded window-open times used as adapted deadline.
+     *
+     * @param multiple factor applied to the percentile.
+     * @throws IllegalArgumentException if the factor is less than 1.
+     */
+    public static void setFactor(int multiple) {
+        if (multiple < 1) {
+            throw new IllegalArgumentException("Factor must be at least 1: " + multiple);
+        }
+        factor = multiple;
+    }
+
+    /**
+     * Returns how long (in milliseconds) a capture should wait for its window.
+     *
+     * @param key    capture being waited on (usually the class of a GooeyWindow).
+     * @param millis timeout of the capture.
+     * @return the adapted deadline if adaptive deadlines are enabled and enough times were recorded (for the capture or,
+     * failing that, for all captures), or the timeout otherwise.
+     */
+    static long deadline(Object key, long millis) {
+        if (!adaptive) {
+            return millis;
+        }
+        long percentile;
+        synchronized (latencies) {
+            Latency latency = latencies.get(key);
+            if (latency == null || latency.count < MIN_SAMPLES) {
+                latency = all;
+            }
+            if (latency.count < MIN_SAMPLES) {
+                return millis;
+            }
+            percentile = latency.percentile(95);
+        }
+        long adapted = Math.max(MIN_DEADLINE, percentile * factor);
+        return Math.min(adapted, millis);
+    }
+
+    /**
+     * Records the time a capture took to see its window.
+     *
+     * @param key    capture being waited on (usually the class of a GooeyWindow).
+     * @param millis time elapsed until the window was displayed.
+     */
+    static void record(Object key, long millis) {
+        synchronized (latencies) {
+            Latency latency = latencies.get(key);
+            if (latency == null) {
+                latency = new Latency();
+                latencies.put(key, latency);
+            }
+            latency.add(millis);
+            all.add(millis);
+        }
+    }
+
+    /**
+     * Circular buffer with the latest window-open times of a capture.
+     */
+    private static class Latency {
+        private final long[] samples = new long[SAMPLES];
+        private int count;
+        private int next;
+
+        void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % SAMPLES;
+            if (count < SAMPLES) {
+                count++;
+            }
+        }
+
+        long percentile(int p) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p / 100.0 * count) - 1;
+            return sorted[Math.max(0, rank)];
+        }
+    }
+}
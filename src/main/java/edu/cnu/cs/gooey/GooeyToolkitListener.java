@@ -16,47 +16,300 @@ package edu.cnu.cs.gooey;
 
 import java.awt.*;
 import java.awt.event.AWTEventListener;
+import java.awt.event.HierarchyEvent;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Listener receiving window events from the toolkit and routing them to the captures waiting for them. Each capture
+ * subscribes with its own criteria, so captures started from different threads wait independently. When a window is
+ * accepted by several subscriptions it is routed, in order of preference, to the subscription of the thread that
+ * captured one of the window's owners, to the subscription whose <code>invoke</code> was running when the window
+ * was shown, and otherwise to the oldest subscription. Since windows are opened asynchronously (i.e., their
+ * <code>WINDOW_OPENED</code> event is posted to the event queue) the thread showing a window is recorded from the
+ * hierarchy event dispatched synchronously by <code>show</code>, so the listener must also be registered for
+ * <code>AWTEvent.HIERARCHY_EVENT_MASK</code>.
+ */
 public class GooeyToolkitListener implements AWTEventListener {
     public static final int TIMEOUT = 5000;
-    private Object target;
-    private EventCriteria criteria;
+    private final Object lock = new Object();
+    private final List<Subscription> subscriptions = new ArrayList<Subscription>();
+    private final Map<Window, Thread> captured = new WeakHashMap<Window, Thread>();
+    private final Map<Window, Thread> shown = new WeakHashMap<Window, Thread>();
+    private Thread invoking;
+    private Subscription current;
 
-    public synchronized void setCriteria(EventCriteria theCriteria) {
-        target = null;
-        criteria = theCriteria;
+    /**
+     * Registers criteria for a window to be captured by the current thread.
+     *
+     * @param criteria criteria indicating an accepting window event.
+     * @return subscription used to wait for the window.
+     */
+    public Subscription subscribe(EventCriteria criteria) {
+        return subscribe(criteria, false);
     }
 
-    public synchronized Object getTarget() {
-        int elapsed = 0;
-        while (target == null && elapsed < TIMEOUT) {
-            synchronized (Thread.currentThread()) {
-                try {
-                    Thread.currentThread().wait(10);
-                    elapsed += 10;
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+    /**
+     * Registers criteria for windows to be captured by the current thread. A subscription to a stream receives every
+     * window accepted until it is cancelled; otherwise it receives at most one window.
+     *
+     * @param criteria criteria indicating an accepting window event.
+     * @param stream   whether the subscription receives more than one window.
+     * @return subscription used to wait for windows.
+     */
+    public Subscription subscribe(EventCriteria criteria, boolean stream) {
+        Subscription subscription = new Subscription(criteria, Thread.currentThread(), stream);
+        synchronized (lock) {
+            subscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Registers criteria for the window returned by the next call to {@link #getTarget()}, replacing the criteria
+     * set previously.
+     *
+     * @param theCriteria criteria indicating an accepting window event, or null to clear the criteria.
+     * @deprecated use {@link #subscribe(EventCriteria)}, which lets several threads capture windows independently.
+     */
+    @Deprecated
+    public void setCriteria(EventCriteria theCriteria) {
+        synchronized (lock) {
+            if (current != null) {
+                current.cancel();
             }
+            current = theCriteria == null ? null : subscribe(theCriteria);
         }
-        Object result = target;
-        target = null;
-        return result;
+    }
+
+    /**
+     * Waits until a window accepted by the criteria last set is dispatched or the timeout ({@link #TIMEOUT}) elapses.
+     * The criteria are cleared when this method returns.
+     *
+     * @return the window accepted, or null if no criteria are set or no window was accepted within the timeout.
+     * @deprecated use {@link Subscription#getTarget(long)}.
+     */
+    @Deprecated
+    public Object getTarget() {
+        Subscription subscription;
+        synchronized (lock) {
+            subscription = current;
+            current = null;
+        }
+        return subscription == null ? null : subscription.getTarget(TIMEOUT);
     }
 
     @Override
     public void eventDispatched(AWTEvent event) {
-        if (criteria != null) {
+        if (event.getID() == HierarchyEvent.HIERARCHY_CHANGED) {
+            recordShown((HierarchyEvent) event);
+            return;
+        }
+        synchronized (lock) {
+            if (subscriptions.isEmpty()) {
+                return;
+            }
             Object source = event.getSource();
-            if (criteria.isAccepted(source, event)) {
-                target = source;
-                criteria = null;
+            Thread owner = getCapturingThread(source);
+            Thread opener = source instanceof Window ? shown.get(source) : null;
+            if (opener == null) {
+                opener = invoking;
+            }
+            Subscription chosen = null;
+            for (Subscription s : subscriptions) {
+                if (s.criteria.isAccepted(source, event)) {
+                    if (s.thread == owner) {
+                        chosen = s;
+                        break;
+                    }
+                    if (chosen == null || (s.thread == opener && chosen.thread != opener)) {
+                        chosen = s;
+                    }
+                }
+            }
+            if (chosen != null) {
+                if (!chosen.stream) {
+                    subscriptions.remove(chosen);
+                }
+                chosen.targets.add(source);
+                if (source instanceof Window) {
+                    captured.put((Window) source, chosen.thread);
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Records the thread whose <code>invoke</code> is running when a window is shown. Hierarchy events are dispatched
+     * synchronously while the window is being shown, unlike the window event that opens it.
+     *
+     * @param event hierarchy event.
+     */
+    private void recordShown(HierarchyEvent event) {
+        if ((event.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && event.getSource() == event.getChanged() &&
+            event.getChanged() instanceof Window && event.getChanged().isShowing()) {
+            synchronized (lock) {
+                if (invoking != null) {
+                    shown.put((Window) event.getChanged(), invoking);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the thread that captured the closest owner of a window.
+     *
+     * @param source source of a window event.
+     * @return capturing thread, or null if no owner of the window was captured.
+     */
+    private Thread getCapturingThread(Object source) {
+        if (source instanceof Window) {
+            for (Window w = ((Window) source).getOwner(); w != null; w = w.getOwner()) {
+                Thread thread = captured.get(w);
+                if (thread != null) {
+                    return thread;
+                }
             }
-//			System.out.printf( "[%s] %s\n", ((Component)event.getSource()).getName(), event );
         }
+        return null;
     }
 
     public interface EventCriteria {
         boolean isAccepted(Object obj, AWTEvent event);
     }
+
+    /**
+     * Pending capture of windows. Unless it is a stream, a subscription is satisfied by at most one window and is
+     * unregistered once its target is retrieved.
+     */
+    public final class Subscription {
+        private final EventCriteria criteria;
+        private final Thread thread;
+        private final boolean stream;
+        private final LinkedList<Object> targets = new LinkedList<Object>();
+        private boolean invoked;
+
+        private Subscription(EventCriteria criteria, Thread thread, boolean stream) {
+            this.criteria = criteria;
+            this.thread = thread;
+            this.stream = stream;
+        }
+
+        /**
+         * Wraps a runnable so that windows opened while it runs are routed to this subscription.
+         *
+         * @param runnable code to run in the event dispatch thread.
+         * @return wrapped runnable.
+         */
+        public Runnable wrap(final Runnable runnable) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    Thread previous;
+                    synchronized (lock) {
+                        previous = invoking;
+                        invoking = thread;
+                    }
+                    try {
+                        runnable.run();
+                    } finally {
+                        synchronized (lock) {
+                            invoking = previous;
+                            invoked = true;
+                            lock.notifyAll();
+                        }
+                    }
+                }
+            };
+        }
+
+        /**
+         * Waits until a window accepted by this subscription is dispatched or the timeout elapses. The subscription
+         * is unregistered when this method returns.
+         *
+         * @param timeout time (in milliseconds) to wait for the window.
+         * @return the window accepted, or null if none was accepted within the timeout.
+         */
+        public Object getTarget(long timeout) {
+            try {
+                return next(timeout);
+            } finally {
+                cancel();
+            }
+        }
+
+        /**
+         * Waits until the next window accepted by this subscription is dispatched or the timeout elapses. The waiting
+         * thread is woken up as soon as the window is accepted. Elapsed time is measured with
+         * {@link System#nanoTime()} so that spurious wake-ups do not extend the deadline.
+         *
+         * @param timeout time (in milliseconds) to wait for the window.
+         * @return the next window accepted, or null if none was accepted within the timeout.
+         */
+        public Object next(long timeout) {
+            synchronized (lock) {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+                long deadline = System.nanoTime() + remaining;
+                while (targets.isEmpty() && remaining > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    remaining = deadline - System.nanoTime();
+                }
+                return targets.poll();
+            }
+        }
+
+        /**
+         * Waits until the runnable wrapped by this subscription finishes running, a window is accepted or the timeout
+         * elapses.
+         *
+         * @param timeout time (in milliseconds) to wait.
+         * @return true if the wrapped runnable finished running.
+         */
+        public boolean awaitInvoked(long timeout) {
+            synchronized (lock) {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+                long deadline = System.nanoTime() + remaining;
+                while (!invoked && targets.isEmpty() && remaining > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    remaining = deadline - System.nanoTime();
+                }
+                return invoked;
+            }
+        }
+
+        /**
+         * Indicates whether a window accepted by this subscription is waiting to be retrieved.
+         *
+         * @return true if a window was accepted and not yet retrieved.
+         */
+        public boolean hasTarget() {
+            synchronized (lock) {
+                return !targets.isEmpty();
+            }
+        }
+
+        /**
+         * Unregisters this subscription. Windows accepted afterwards are routed to other subscriptions.
+         */
+        public void cancel() {
+            synchronized (lock) {
+                subscriptions.remove(this);
+            }
+        }
+    }
 }
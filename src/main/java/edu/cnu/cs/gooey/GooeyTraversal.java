@@ -0,0 +1,260 @@
+/*
+ * This file is part of Gooey, licensed under the ISC License.
+ *
+ * Copyright (c) 2013 - 2014, JoSE Group, Christopher Newport University
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted,
+ * provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+package edu.cnu.cs.gooey;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * <p>Title: GooeyTraversal</p>
+ * <p>Description: Breadth-first traversal of a component hierarchy shared by all component and menu searches.
+ * Components are queued in a circular array that grows as needed, and children are read one at a time with
+ * <code>getComponentCount</code>/<code>getComponent</code> (or <code>getMenuComponentCount</code>/
+ * <code>getMenuComponent</code> for menus), so no arrays or lists are allocated per node visited. Children of a
+ * component are queued only when the next component is requested, so searches stopping at a match do not pay for
+ * children they never visit. Searches may also prune the children of the component last visited, or give them a
+ * state (e.g., the steps of a selector matched so far) that is returned along with each component. Subtrees may
+ * also be pruned up front: below a maximum depth, under components that are not visible, and under the cards of a
+ * <code>CardLayout</code> or the tabs of a <code>JTabbedPane</code> that are not displayed.
+ * </p>
+ */
+final class GooeyTraversal {
+    private final boolean nested;
+    private final boolean menus;
+    private Component[] queue;
+    private long[] states;
+    private int[] depths;
+    private int head;
+    private int size;
+    private long state;
+    private int depth;
+    private Component pending;
+    private long pendingState;
+    private GooeySummary filter;
+    private int maxDepth = Integer.MAX_VALUE;
+    private boolean visibleOnly;
+    private boolean skipHiddenCards;
+    private boolean enterMenus;
+
+    /**
+     * Creates a traversal of the components held by a container. The container itself is not visited.
+     *
+     * @param root   container whose components are traversed.
+     * @param nested whether nested components are traversed (otherwise only the container's components are).
+     * @param menus  whether menu components are traversed (i.e., sub-menus are entered through their pop-up menus).
+     */
+    GooeyTraversal(Container root, boolean nested, boolean menus) {
+        this(root, nested, menus, 0);
+    }
+
+    /**
+     * Creates a traversal of the components held by a container. The container itself is not visited.
+     *
+     * @param root   container whose components are traversed.
+     * @param nested whether nested components are traversed (otherwise only the container's components are).
+     * @param menus  whether menu components are traversed (i.e., sub-menus are entered through their pop-up menus).
+     * @param state  state of the container's components.
+     */
+    GooeyTraversal(Container root, boolean nested, boolean menus, long state) {
+        this.nested = nested;
+        this.menus = menus;
+        this.queue = new Component[16];
+        this.states = new long[16];
+        this.depths = new int[16];
+        // the container's components are queued on the first request, once all pruning options are set
+        this.pending = root;
+        this.pendingState = state;
+    }
+
+    /**
+     * Sets the summaries used to skip containers holding no component sought.
+     *
+     * @param summary filter of containers, or null to enter every container.
+     */
+    void setFilter(GooeySummary summary) {
+        filter = summary;
+    }
+
+    /**
+     * Sets the pruning requested by the flags SEARCH_VISIBLE (components that are not visible, and the components
+     * they hold, are not traversed) and SKIP_HIDDEN_CARDS (only the displayed card of a <code>CardLayout</code> and
+     * the selected tab of a <code>JTabbedPane</code> are traversed). Other flags are ignored.
+     *
+     * @param flags flags of the search.
+     */
+    void setFlags(GooeyFlag... flags) {
+        for (GooeyFlag flag : flags) {
+            if (flag == GooeyFlag.SEARCH_VISIBLE) {
+                visibleOnly = true;
+            } else if (flag == GooeyFlag.SKIP_HIDDEN_CARDS) {
+                skipHiddenCards = true;
+            }
+        }
+    }
+
+    /**
+     * Enters sub-menus through their pop-up menus while traversing every other container as well, so that menu items
+     * are reached from the window holding the menu bar.
+     */
+    void setEnterMenus() {
+        enterMenus = true;
+    }
+
+    /**
+     * Sets the maximum depth of the components traversed. The components held by the container have depth 1.
+     *
+     * @param depth maximum depth.
+     */
+    void setMaxDepth(int depth) {
+        maxDepth = depth;
+    }
+
+    /**
+     * Indicates whether components remain to be visited.
+     *
+     * @return true if there are components left.
+     */
+    boolean hasNext() {
+        expand();
+        return size > 0;
+    }
+
+    /**
+     * Returns the next component in breadth-first order.
+     *
+     * @return next component, or null if all components were visited.
+     */
+    Component next() {
+        expand();
+        if (size == 0) {
+            return null;
+        }
+        Component c = queue[head];
+        state = states[head];
+        depth = depths[head];
+        queue[head] = null;
+        head = (head + 1) & (queue.length - 1);
+        size--;
+        if (nested && depth < maxDepth) {
+            pending = c;
+            pendingState = state;
+        }
+        return c;
+    }
+
+    /**
+     * Returns the state of the component last returned. Unless changed with {@link #descend(long)}, components
+     * have the state of their parent.
+     *
+     * @return state of the component last returned.
+     */
+    long state() {
+        return state;
+    }
+
+    /**
+     * Sets the state of the children of the component last returned.
+     *
+     * @param childState state of the children.
+     */
+    void descend(long childState) {
+        pendingState = childState;
+    }
+
+    /**
+     * Skips the children of the component last returned.
+     */
+    void prune() {
+        pending = null;
+    }
+
+    /**
+     * Queues the children of the component last returned, if any.
+     */
+    private void expand() {
+        if (pending != null) {
+            Component c = pending;
+            pending = null;
+            if ((menus || enterMenus) && c instanceof JMenu) {
+                addChildren((JMenu) c, true, pendingState, depth + 1);
+            } else if ((!menus || depth == 0) && c instanceof Container &&
+                       (filter == null || filter.mayContain((Container) c))) {
+                addChildren((Container) c, false, pendingState, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Queues the children of a container.
+     *
+     * @param parent container whose children are queued.
+     * @param menu   whether the children are the menu components of a menu.
+     * @param state  state of the children.
+     * @param depth  depth of the children.
+     */
+    private void addChildren(Container parent, boolean menu, long state, int depth) {
+        synchronized (parent.getTreeLock()) {
+            if (menu) {
+                JMenu m = (JMenu) parent;
+                int count = m.getMenuComponentCount();
+                for (int i = 0; i < count; i++) {
+                    add(m.getMenuComponent(i), state, depth);
+                }
+            } else {
+                boolean cards = skipHiddenCards && parent.getLayout() instanceof CardLayout;
+                JTabbedPane tabs = skipHiddenCards && parent instanceof JTabbedPane ? (JTabbedPane) parent : null;
+                Component selected = tabs == null ? null : tabs.getSelectedComponent();
+                int count = parent.getComponentCount();
+                for (int i = 0; i < count; i++) {
+                    Component c = parent.getComponent(i);
+                    if (cards && !c.isVisible()) {
+                        continue;
+                    }
+                    if (tabs != null && c != selected && tabs.indexOfComponent(c) >= 0) {
+                        continue;
+                    }
+                    add(c, state, depth);
+                }
+            }
+        }
+    }
+
+    private void add(Component c, long state, int depth) {
+        if (visibleOnly && !c.isVisible()) {
+            return;
+        }
+        if (size == queue.length) {
+            Component[] larger = new Component[queue.length * 2];
+            long[] largerStates = new long[queue.length * 2];
+            int[] largerDepths = new int[queue.length * 2];
+            int tail = queue.length - head;
+            System.arraycopy(queue, head, larger, 0, tail);
+            System.arraycopy(queue, 0, larger, tail, head);
+            System.arraycopy(states, head, largerStates, 0, tail);
+            System.arraycopy(states, 0, largerStates, tail, head);
+            System.arraycopy(depths, head, largerDepths, 0, tail);
+            System.arraycopy(depths, 0, largerDepths, tail, head);
+            queue = larger;
+            states = largerStates;
+            depths = largerDepths;
+            head = 0;
+        }
+        int tail = (head + size) & (queue.length - 1);
+        queue[tail] = c;
+        states[tail] = state;
+        depths[tail] = depth;
+        size++;
+    }
+}